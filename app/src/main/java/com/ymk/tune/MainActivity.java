@@ -4,6 +4,7 @@ import android.os.Bundle;
 
 import com.ymk.base.base.BaseVmActivity;
 import com.ymk.tune.databinding.ActivityMainBinding;
+import com.ymk.tune.widget.VolumePanelAdapter;
 
 public final class MainActivity extends BaseVmActivity<ActivityMainBinding, MainVm> {
 
@@ -16,5 +17,25 @@ public final class MainActivity extends BaseVmActivity<ActivityMainBinding, Main
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         binding.setVm(viewModel);
+
+        // 音量面板 行在后台线程创建完成后再提交数据
+        VolumePanelAdapter adapter = new VolumePanelAdapter(this);
+        binding.rvVolume.setHasFixedSize(true);
+        binding.rvVolume.setAdapter(adapter);
+        adapter.preInflate(binding.rvVolume, viewModel.getStreamCount(),
+                () -> viewModel.volumeRowsLvData.observe(this, adapter::submitList));
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // 在后台期间音量范围可能因为切换输出设备而改变 显示期间切换时同样需要更新
+        viewModel.setVolumeRowsVisible(true);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        viewModel.setVolumeRowsVisible(false);
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,21 @@ package com.ymk.tune;
 
 import android.media.AudioManager;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
 
 import com.ymk.base.base.BaseViewModel;
+import com.ymk.tune.widget.VolumeRow;
+import com.ymk.volume.OnVolumeChangeListener;
 import com.ymk.volume.Volume;
+import com.ymk.volume.VolumeChangeEvent;
+import com.ymk.volume.VolumeSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author YMK
@@ -23,37 +34,194 @@ public final class MainVm extends BaseViewModel {
     public final LiveData<Integer> ringModeLvData = Volume.getInstance().ringMode();
 
     /**
-     * 通话音量
+     * 音量面板的行
+     * <p>
+     * 只保存快照中的数值，行显示时才订阅对应音量流
      */
-    public final LiveData<Integer> voiceCallLvData = Volume.getInstance().stateOf(AudioManager.STREAM_VOICE_CALL);
-
-    public final LiveData<Integer> systemLvData = Volume.getInstance().stateOf(AudioManager.STREAM_SYSTEM);
+    public final MutableLiveData<List<VolumeRow>> volumeRowsLvData = new MutableLiveData<>();
 
     /**
-     * 响铃、通知、系统默认音
+     * 库支持的音量流
      */
-    public final LiveData<Integer> ringLvData = Volume.getInstance().stateOf(AudioManager.STREAM_RING);
+    private final int[] streamTypes = Volume.getInstance().getStreamTypes();
 
     /**
-     * 媒体音量
+     * 最后一次生成行时使用的快照
      */
-    public final LiveData<Integer> musicLvData = Volume.getInstance().stateOf(AudioManager.STREAM_MUSIC);
+    @Nullable
+    private VolumeSnapshot snapshot;
 
     /**
-     * 闹钟音量
+     * 快照中没有范围时在后台加载的范围，[ 行 ] = 范围
      */
-    public final LiveData<Integer> alarmLvData = Volume.getInstance().stateOf(AudioManager.STREAM_ALARM);
-
-    public final LiveData<Integer> notificationLvData = Volume.getInstance().stateOf(AudioManager.STREAM_NOTIFICATION);
+    private final int[] loadedMin;
+    private final int[] loadedMax;
 
-    public final LiveData<Integer> dtmfLvData = Volume.getInstance().stateOf(AudioManager.STREAM_DTMF);
-
-    public final LiveData<Integer> accessibilityLvData = Volume.getInstance().stateOf(AudioManager.STREAM_ACCESSIBILITY);
+    /**
+     * 正在后台加载范围的行
+     */
+    private final boolean[] loading;
+
+    public MainVm() {
+        loadedMin = new int[streamTypes.length];
+        loadedMax = new int[streamTypes.length];
+        loading = new boolean[streamTypes.length];
+        Arrays.fill(loadedMin, VolumeSnapshot.UNKNOWN);
+        Arrays.fill(loadedMax, VolumeSnapshot.UNKNOWN);
+    }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // 事件
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * 音量流数量
+     */
+    public int getStreamCount() {
+        return streamTypes.length;
+    }
+
+    /**
+     * 显示期间的状态改变，只在范围改变时重新生成行
+     */
+    private final OnVolumeChangeListener volumeChangeListener = new OnVolumeChangeListener() {
+        @Override
+        public void onVolumeChange(@NonNull VolumeChangeEvent event) {
+            refreshVolumeRanges();
+        }
+
+        @Override
+        public void onVolumeChanges(@NonNull List<VolumeChangeEvent> events) {
+            refreshVolumeRanges();
+        }
+    };
+
+    /**
+     * 面板显示时开始跟随状态改变更新行的范围（例如切换输出设备），隐藏时停止
+     */
+    public void setVolumeRowsVisible(boolean visible) {
+        if (visible) {
+            Volume.getInstance().addOnVolumeChangeListener(volumeChangeListener);
+            refreshVolumeRows();
+        } else {
+            Volume.getInstance().removeOnVolumeChangeListener(volumeChangeListener);
+        }
+    }
+
+    /**
+     * 根据最新的音量快照生成面板的行
+     * <p>
+     * 快照没有改变时直接返回；范围未知时在后台加载，加载完成后再更新对应的行，
+     * 音量未知时由行显示后订阅的 LiveData 补齐
+     */
+    public void refreshVolumeRows() {
+        VolumeSnapshot snapshot = Volume.getInstance().getAllVolumes();
+        if (null != this.snapshot && snapshot.getVersion() == this.snapshot.getVersion()) {
+            return;
+        }
+        // 记录读到的快照 之后的改变版本不同 下一次刷新一定会重新生成
+        this.snapshot = snapshot;
+        publishVolumeRows();
+    }
+
+    /**
+     * 范围与显示中的行不同时重新生成行
+     * <p>
+     * 音量由行订阅的 LiveData 更新，这里只处理范围，连续调节音量时不会重新生成
+     */
+    private void refreshVolumeRanges() {
+        List<VolumeRow> rows = volumeRowsLvData.getValue();
+        if (null == rows) {
+            return;
+        }
+        VolumeSnapshot snapshot = Volume.getInstance().getAllVolumes();
+        for (int i = 0; i < streamTypes.length && i < rows.size(); i++) {
+            VolumeRow row = rows.get(i);
+            if (minOf(snapshot, i) != row.minVolume || maxOf(snapshot, i) != row.maxVolume) {
+                this.snapshot = snapshot;
+                publishVolumeRows();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 在后台加载范围，结果在主线程回调
+     *
+     * @param row 行
+     */
+    private void loadRange(final int row) {
+        if (loading[row]) {
+            return;
+        }
+        loading[row] = true;
+        final Volume volume = Volume.getInstance();
+        final int streamType = streamTypes[row];
+        volume.getMinVolumeAsync(streamType, min -> volume.getMaxVolumeAsync(streamType, max -> {
+            loading[row] = false;
+            loadedMin[row] = min;
+            loadedMax[row] = max;
+            publishVolumeRows();
+        }));
+    }
+
+    /**
+     * 确定某一行的范围来源
+     * <p>
+     * 快照中有范围时丢弃之前在后台加载的范围（输出设备可能已经改变）；
+     * 没有范围且没有加载过时在后台加载
+     */
+    private void resolveRange(@NonNull VolumeSnapshot snapshot, int row) {
+        int streamType = streamTypes[row];
+        if (VolumeSnapshot.UNKNOWN != snapshot.getMinVolume(streamType)
+                && VolumeSnapshot.UNKNOWN != snapshot.getMaxVolume(streamType)) {
+            loadedMin[row] = VolumeSnapshot.UNKNOWN;
+            loadedMax[row] = VolumeSnapshot.UNKNOWN;
+        } else if (VolumeSnapshot.UNKNOWN == loadedMax[row]) {
+            loadRange(row);
+        }
+    }
+
+    /**
+     * 某一行的最小音量，优先使用快照中的值，都未知时暂时为 0
+     */
+    private int minOf(@NonNull VolumeSnapshot snapshot, int row) {
+        resolveRange(snapshot, row);
+        int min = snapshot.getMinVolume(streamTypes[row]);
+        if (VolumeSnapshot.UNKNOWN == min || VolumeSnapshot.UNKNOWN == snapshot.getMaxVolume(streamTypes[row])) {
+            min = loadedMin[row];
+        }
+        return VolumeSnapshot.UNKNOWN == min ? 0 : min;
+    }
+
+    /**
+     * 某一行的最大音量，参考 {@link #minOf}
+     */
+    private int maxOf(@NonNull VolumeSnapshot snapshot, int row) {
+        int max = snapshot.getMaxVolume(streamTypes[row]);
+        if (VolumeSnapshot.UNKNOWN == max || VolumeSnapshot.UNKNOWN == snapshot.getMinVolume(streamTypes[row])) {
+            max = loadedMax[row];
+        }
+        return VolumeSnapshot.UNKNOWN == max ? 0 : max;
+    }
+
+    /**
+     * 由当前快照生成行
+     */
+    private void publishVolumeRows() {
+        VolumeSnapshot snapshot = this.snapshot;
+        if (null == snapshot) {
+            return;
+        }
+        List<VolumeRow> rows = new ArrayList<>(streamTypes.length);
+        for (int i = 0; i < streamTypes.length; i++) {
+            int streamType = streamTypes[i];
+            rows.add(new VolumeRow(streamType, snapshot.getVolume(streamType),
+                    minOf(snapshot, i), maxOf(snapshot, i)));
+        }
+        volumeRowsLvData.setValue(rows);
+    }
+
     /**
      * 设置响铃模式
      */
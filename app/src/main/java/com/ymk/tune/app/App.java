@@ -12,6 +12,11 @@ public class App extends BaseApp {
     @Override
     protected void initSdk() {
         super.initSdk();
-        Volume.getInstance().init(this);
+        // 在后台线程接收音量广播 避免长按音量键时占用主线程
+        Volume.getInstance().init(this, true);
+        // 进入后台时暂停接收音量广播
+        Volume.getInstance().setSuspendInBackground(true);
+        // 进度条只需要每帧刷新一次
+        Volume.getInstance().setFrameAlignedDispatch(true);
     }
 }
\ No newline at end of file
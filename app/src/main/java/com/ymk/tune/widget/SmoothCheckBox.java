@@ -37,11 +37,21 @@ public class SmoothCheckBox extends View implements Checkable {
     private static final int DEF_DRAW_SIZE = 25;
     private static final int DEF_ANIM_DURATION = 300;
 
+    /**
+     * tick drawing takes half of the check duration, close to the old 10ms stepping
+     */
+    private static final float TICK_DURATION_RATIO = 0.5f;
+
     private Paint mPaint, mTickPaint, mFloorPaint;
     private Point[] mTickPoints;
     private Point mCenterPoint;
+    // full tick, built once per layout and reused when the tick is not animating
     private Path mTickPath;
 
+    // one animator drives scale, floor, color and tick for both directions
+    private ValueAnimator mAnimator;
+    private boolean mAnimChecked;
+
 
     private float mLeftLineDistance, mRightLineDistance, mDrewDistance;
     private float mScaleVal = 1.0f, mFloorScale = 1.0f;
@@ -103,17 +113,20 @@ public class SmoothCheckBox extends View implements Checkable {
         mTickPoints[1] = new Point();
         mTickPoints[2] = new Point();
 
+        mAnimator = ValueAnimator.ofFloat(0f, 1.0f);
+        mAnimator.setInterpolator(new LinearInterpolator());
+        mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                // getAnimatedFraction is a primitive, getAnimatedValue would box a Float per frame
+                onAnimationFrame(animation.getAnimatedFraction() * animation.getDuration());
+            }
+        });
+
         setOnClickListener(new OnClickListener() {
             @Override
             public void onClick(View v) {
-                toggle();
-                mTickDrawing = false;
-                mDrewDistance = 0;
-                if (isChecked()) {
-                    startCheckedAnimation();
-                } else {
-                    startUnCheckedAnimation();
-                }
+                setChecked(!isChecked(), true);
             }
         });
     }
@@ -158,6 +171,11 @@ public class SmoothCheckBox extends View implements Checkable {
 
     @Override
     public void setChecked(boolean checked) {
+        if (mAnimator.isRunning()) {
+            mAnimator.cancel();
+        } else if (mChecked == checked) {
+            return;
+        }
         mChecked = checked;
         reset();
         invalidate();
@@ -174,14 +192,8 @@ public class SmoothCheckBox extends View implements Checkable {
      */
     public void setChecked(boolean checked, boolean animate) {
         if (animate) {
-            mTickDrawing = false;
             mChecked = checked;
-            mDrewDistance = 0f;
-            if (checked) {
-                startCheckedAnimation();
-            } else {
-                startUnCheckedAnimation();
-            }
+            startAnimation(checked);
             if (mListener != null) {
                 mListener.onCheckedChanged(SmoothCheckBox.this, mChecked);
             }
@@ -244,6 +256,21 @@ public class SmoothCheckBox extends View implements Checkable {
         mRightLineDistance = (float) Math.sqrt(Math.pow(mTickPoints[2].x - mTickPoints[1].x, 2) +
                 Math.pow(mTickPoints[2].y - mTickPoints[1].y, 2));
         mTickPaint.setStrokeWidth(mStrokeWidth);
+
+        mTickPath.reset();
+        mTickPath.moveTo(mTickPoints[0].x, mTickPoints[0].y);
+        mTickPath.lineTo(mTickPoints[1].x, mTickPoints[1].y);
+        mTickPath.lineTo(mTickPoints[2].x, mTickPoints[2].y);
+        if (!mAnimator.isRunning()) {
+            reset();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        // jump to the final state, a detached view never gets the remaining frames
+        mAnimator.end();
+        super.onDetachedFromWindow();
     }
 
     @Override
@@ -272,122 +299,63 @@ public class SmoothCheckBox extends View implements Checkable {
     }
 
     private void drawTickPath(Canvas canvas) {
-        mTickPath.reset();
-        // draw left of the tick
-        if (mDrewDistance < mLeftLineDistance) {
-            float step = (mWidth / 20.0f) < 3 ? 3 : (mWidth / 20.0f);
-            mDrewDistance += step;
-            float stopX = mTickPoints[0].x + (mTickPoints[1].x - mTickPoints[0].x) * mDrewDistance / mLeftLineDistance;
-            float stopY = mTickPoints[0].y + (mTickPoints[1].y - mTickPoints[0].y) * mDrewDistance / mLeftLineDistance;
-
-            mTickPath.moveTo(mTickPoints[0].x, mTickPoints[0].y);
-            mTickPath.lineTo(stopX, stopY);
-            canvas.drawPath(mTickPath, mTickPaint);
-
-            if (mDrewDistance > mLeftLineDistance) {
-                mDrewDistance = mLeftLineDistance;
-            }
-        } else {
-
-            mTickPath.moveTo(mTickPoints[0].x, mTickPoints[0].y);
-            mTickPath.lineTo(mTickPoints[1].x, mTickPoints[1].y);
+        float total = mLeftLineDistance + mRightLineDistance;
+        if (mDrewDistance >= total) {
             canvas.drawPath(mTickPath, mTickPaint);
-
-            // draw right of the tick
-            if (mDrewDistance < mLeftLineDistance + mRightLineDistance) {
-                float stopX = mTickPoints[1].x + (mTickPoints[2].x - mTickPoints[1].x) * (mDrewDistance - mLeftLineDistance) / mRightLineDistance;
-                float stopY = mTickPoints[1].y - (mTickPoints[1].y - mTickPoints[2].y) * (mDrewDistance - mLeftLineDistance) / mRightLineDistance;
-
-                mTickPath.reset();
-                mTickPath.moveTo(mTickPoints[1].x, mTickPoints[1].y);
-                mTickPath.lineTo(stopX, stopY);
-                canvas.drawPath(mTickPath, mTickPaint);
-
-                float step = (mWidth / 20) < 3 ? 3 : (mWidth / 20);
-                mDrewDistance += step;
-            } else {
-                mTickPath.reset();
-                mTickPath.moveTo(mTickPoints[1].x, mTickPoints[1].y);
-                mTickPath.lineTo(mTickPoints[2].x, mTickPoints[2].y);
-                canvas.drawPath(mTickPath, mTickPaint);
-            }
+            return;
         }
-
-        // invalidate
-        if (mDrewDistance < mLeftLineDistance + mRightLineDistance) {
-            postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    postInvalidate();
-                }
-            }, 10);
+        // partial tick, drawn as lines so the cached path is left untouched
+        if (mDrewDistance <= mLeftLineDistance) {
+            float ratio = mLeftLineDistance == 0 ? 1f : mDrewDistance / mLeftLineDistance;
+            float stopX = mTickPoints[0].x + (mTickPoints[1].x - mTickPoints[0].x) * ratio;
+            float stopY = mTickPoints[0].y + (mTickPoints[1].y - mTickPoints[0].y) * ratio;
+            canvas.drawLine(mTickPoints[0].x, mTickPoints[0].y, stopX, stopY, mTickPaint);
+        } else {
+            float ratio = (mDrewDistance - mLeftLineDistance) / mRightLineDistance;
+            float stopX = mTickPoints[1].x + (mTickPoints[2].x - mTickPoints[1].x) * ratio;
+            float stopY = mTickPoints[1].y + (mTickPoints[2].y - mTickPoints[1].y) * ratio;
+            canvas.drawLine(mTickPoints[0].x, mTickPoints[0].y, mTickPoints[1].x, mTickPoints[1].y, mTickPaint);
+            canvas.drawLine(mTickPoints[1].x, mTickPoints[1].y, stopX, stopY, mTickPaint);
         }
     }
 
-    private void startCheckedAnimation() {
-        ValueAnimator animator = ValueAnimator.ofFloat(1.0f, 0f);
-        animator.setDuration(mAnimDuration / 3 * 2);
-        animator.setInterpolator(new LinearInterpolator());
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mScaleVal = (float) animation.getAnimatedValue();
-                mFloorColor = getGradientColor(mUnCheckedColor, mCheckedColor, 1 - mScaleVal);
-                postInvalidate();
-            }
-        });
-        animator.start();
-
-        ValueAnimator floorAnimator = ValueAnimator.ofFloat(1.0f, 0.8f, 1.0f);
-        floorAnimator.setDuration(mAnimDuration);
-        floorAnimator.setInterpolator(new LinearInterpolator());
-        floorAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mFloorScale = (float) animation.getAnimatedValue();
-                postInvalidate();
-            }
-        });
-        floorAnimator.start();
-
-        drawTickDelayed();
-    }
-
-    private void startUnCheckedAnimation() {
-        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1.0f);
-        animator.setDuration(mAnimDuration);
-        animator.setInterpolator(new LinearInterpolator());
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mScaleVal = (float) animation.getAnimatedValue();
-                mFloorColor = getGradientColor(mCheckedColor, mFloorUnCheckedColor, mScaleVal);
-                postInvalidate();
-            }
-        });
-        animator.start();
-
-        ValueAnimator floorAnimator = ValueAnimator.ofFloat(1.0f, 0.8f, 1.0f);
-        floorAnimator.setDuration(mAnimDuration);
-        floorAnimator.setInterpolator(new LinearInterpolator());
-        floorAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mFloorScale = (float) animation.getAnimatedValue();
-                postInvalidate();
-            }
-        });
-        floorAnimator.start();
+    /**
+     * restart the shared animator, checked runs scale + floor then the tick, unchecked runs scale + floor only
+     */
+    private void startAnimation(boolean checked) {
+        mAnimator.cancel();
+        mAnimChecked = checked;
+        mTickDrawing = false;
+        mDrewDistance = 0f;
+        long duration = checked ? mAnimDuration + (long) (mAnimDuration * TICK_DURATION_RATIO) : mAnimDuration;
+        mAnimator.setDuration(duration);
+        mAnimator.start();
     }
 
-    private void drawTickDelayed() {
-        postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                mTickDrawing = true;
-                postInvalidate();
+    /**
+     * @param playTime milliseconds since the animation started
+     */
+    private void onAnimationFrame(float playTime) {
+        float floorFraction = Math.min(1f, playTime / Math.max(1, mAnimDuration));
+        // 1.0 -> 0.8 -> 1.0
+        mFloorScale = floorFraction < 0.5f ? 1.0f - 0.4f * floorFraction : 0.6f + 0.4f * floorFraction;
+
+        if (mAnimChecked) {
+            float scaleFraction = Math.min(1f, playTime / Math.max(1, mAnimDuration / 3 * 2));
+            mScaleVal = 1.0f - scaleFraction;
+            mFloorColor = getGradientColor(mUnCheckedColor, mCheckedColor, scaleFraction);
+
+            float tickTime = playTime - mAnimDuration;
+            mTickDrawing = tickTime >= 0;
+            if (mTickDrawing) {
+                float tickFraction = Math.min(1f, tickTime / (mAnimDuration * TICK_DURATION_RATIO));
+                mDrewDistance = (mLeftLineDistance + mRightLineDistance) * tickFraction;
             }
-        }, mAnimDuration);
+        } else {
+            mScaleVal = floorFraction;
+            mFloorColor = getGradientColor(mCheckedColor, mFloorUnCheckedColor, floorFraction);
+        }
+        invalidate();
     }
 
     private static int getGradientColor(int startColor, int endColor, float percent) {
@@ -0,0 +1,230 @@
+package com.ymk.tune.widget;
+
+import android.media.AudioManager;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.ymk.tune.R;
+import com.ymk.volume.StreamTypes;
+import com.ymk.volume.Volume;
+import com.ymk.volume.VolumeSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * 音量面板
+ * <p>
+ * 行由音量快照生成，通过 DiffUtil 比较，只有音量改变的行以 payload 的方式更新进度。
+ * 行只在显示期间订阅对应音量流的 LiveData，滑出屏幕后立即取消订阅
+ *
+ * @author YMK
+ * @since 2025/12/13
+ */
+public final class VolumePanelAdapter extends ListAdapter<VolumeRow, VolumePanelAdapter.Holder> {
+
+    /**
+     * 只有音量改变
+     */
+    private static final Object PAYLOAD_VOLUME = new Object();
+
+    private static final DiffUtil.ItemCallback<VolumeRow> DIFF = new DiffUtil.ItemCallback<VolumeRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull VolumeRow oldItem, @NonNull VolumeRow newItem) {
+            return oldItem.streamType == newItem.streamType;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull VolumeRow oldItem, @NonNull VolumeRow newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull VolumeRow oldItem, @NonNull VolumeRow newItem) {
+            return oldItem.sameRange(newItem) ? PAYLOAD_VOLUME : null;
+        }
+    };
+
+    private final LifecycleOwner owner;
+
+    /**
+     * 异步预先创建的行
+     */
+    private final ArrayDeque<View> preInflated = new ArrayDeque<>();
+
+    public VolumePanelAdapter(@NonNull LifecycleOwner owner) {
+        super(DIFF);
+        this.owner = owner;
+    }
+
+    /**
+     * 在后台线程预先创建行
+     * <p>
+     * 全部创建完成后在主线程回调，之后提交的数据直接使用这些行，首次布局不需要在主线程加载布局
+     *
+     * @param parent 行的父布局，用于生成 LayoutParams
+     * @param count  创建的数量
+     */
+    public void preInflate(@NonNull RecyclerView parent, int count, @NonNull Runnable onReady) {
+        if (count <= 0) {
+            onReady.run();
+            return;
+        }
+        final int[] remaining = {count};
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(parent.getContext());
+        for (int i = 0; i < count; i++) {
+            inflater.inflate(R.layout.item_volume_progress, parent, (view, resid, p) -> {
+                preInflated.add(view);
+                if (--remaining[0] == 0) {
+                    onReady.run();
+                }
+            });
+        }
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = preInflated.poll();
+        if (null == view) {
+            view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_volume_progress, parent, false);
+        }
+        return new Holder((VolumeProgress) view, owner);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // 只有音量改变 显示中的行已经由 LiveData 更新过 数值相同时不会重绘
+        holder.setVolume(getItem(position).volume);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull Holder holder) {
+        holder.subscribe();
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull Holder holder) {
+        holder.unsubscribe();
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull Holder holder) {
+        holder.unsubscribe();
+    }
+
+    /**
+     * 音量流的标题
+     */
+    @NonNull
+    static String titleOf(int streamType) {
+        switch (streamType) {
+            case AudioManager.STREAM_VOICE_CALL:
+                return "通话";
+            case AudioManager.STREAM_SYSTEM:
+                return "system";
+            case AudioManager.STREAM_RING:
+                return "响铃，通知，系统默认音";
+            case AudioManager.STREAM_MUSIC:
+                return "媒体";
+            case AudioManager.STREAM_ALARM:
+                return "闹钟";
+            case AudioManager.STREAM_NOTIFICATION:
+                return "notification";
+            case StreamTypes.STREAM_BLUETOOTH_SCO:
+                return "蓝牙通话";
+            case AudioManager.STREAM_DTMF:
+                return "dtmf";
+            case AudioManager.STREAM_ACCESSIBILITY:
+                return "accessibility";
+            default:
+                return String.valueOf(streamType);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ViewHolder
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public static final class Holder extends RecyclerView.ViewHolder implements Observer<Integer> {
+
+        private final VolumeProgress progress;
+
+        private final LifecycleOwner owner;
+
+        /**
+         * 显示期间订阅的音量状态
+         */
+        @Nullable
+        private LiveData<Integer> state;
+
+        Holder(@NonNull VolumeProgress progress, @NonNull LifecycleOwner owner) {
+            super(progress);
+            this.progress = progress;
+            this.owner = owner;
+        }
+
+        void bind(@NonNull VolumeRow row) {
+            boolean subscribed = null != state;
+            if (subscribed && progress.getStreamType() != row.streamType) {
+                unsubscribe();
+            }
+            progress.bind(row.streamType, titleOf(row.streamType), row.minVolume, row.maxVolume);
+            setVolume(row.volume);
+            if (subscribed && null == state) {
+                subscribe();
+            }
+        }
+
+        void setVolume(int volume) {
+            if (VolumeSnapshot.UNKNOWN != volume) {
+                progress.setProgress(volume);
+            }
+        }
+
+        void subscribe() {
+            int streamType = progress.getStreamType();
+            if (null != state || streamType < 0) {
+                return;
+            }
+            state = Volume.getInstance().stateOf(streamType);
+            state.observe(owner, this);
+        }
+
+        void unsubscribe() {
+            if (null != state) {
+                state.removeObserver(this);
+                state = null;
+            }
+        }
+
+        @Override
+        public void onChanged(Integer volume) {
+            if (null != volume) {
+                progress.setProgress(volume);
+            }
+        }
+    }
+}
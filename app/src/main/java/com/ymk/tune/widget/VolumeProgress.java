@@ -2,68 +2,146 @@ package com.ymk.tune.widget;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Bundle;
 import android.util.AttributeSet;
-import android.util.Log;
-import android.view.LayoutInflater;
-import android.widget.LinearLayout;
+import android.util.TypedValue;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewParent;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.SeekBar;
 
 import androidx.annotation.Nullable;
-import androidx.databinding.DataBindingUtil;
-import androidx.databinding.ObservableInt;
 
 import com.ymk.tune.R;
-import com.ymk.tune.databinding.ItemVolumeProgressBinding;
 import com.ymk.volume.Volume;
-
-import java.util.Objects;
+import com.ymk.volume.VolumeTrace;
 
 /**
  * 音量进度条
+ * <p>
+ * 标题、轨道、进度和数值全部由自身绘制，不再嵌套 SeekBar、TextView，视图层级只有一层
+ * <p>
+ * 数值文字预先按 0..max 生成，画笔与矩形全部复用，拖动过程中不产生任何对象。
+ * 可以在布局中通过 vpType 指定音量流，也可以在列表中通过 {@link #bind} 复用
+ * <p>
+ * 与 SeekBar 一样支持方向键调节，无障碍服务可以读取范围并通过前进、后退、设置进度操作调节音量
  *
  * @author YouMingKun
  * @since 2024-01-18
  */
-public final class VolumeProgress extends LinearLayout implements SeekBar.OnSeekBarChangeListener {
+public final class VolumeProgress extends View {
+
+    private static final int COLOR_TITLE = Color.BLACK;
+    private static final int COLOR_LABEL = Color.BLACK;
+    private static final int COLOR_TRACK = Color.parseColor("#33000000");
+    private static final int COLOR_FILL = Color.parseColor("#5A8DDF");
+
+    /**
+     * 0..max 的数值文字，所有实例共用，只在遇到更大的 max 时扩充
+     */
+    private static String[] labels = {"0"};
+
+    private static void ensureLabels(int max) {
+        if (max < labels.length) {
+            return;
+        }
+        String[] expanded = new String[max + 1];
+        System.arraycopy(labels, 0, expanded, 0, labels.length);
+        for (int i = labels.length; i <= max; i++) {
+            expanded[i] = String.valueOf(i);
+        }
+        labels = expanded;
+    }
+
+    private int streamType = -1;
+    private int minVolume = 0;
+    private int maxVolume = 0;
+
+    private String title = "";
+
+    private final Paint titlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint trackPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    /**
+     * 轨道区域，尺寸改变时计算
+     */
+    private final RectF trackRect = new RectF();
 
-    private static final String TAG = "VolumeProgress";
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // 尺寸 与原布局保持一致
+    ////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private final int streamType;
-    private final int minVolume;
+    private final float paddingHorizontal;
+    private final float titlePaddingTop;
+    private final float titlePaddingBottom;
+    private final float trackHeight;
+    private final float labelWidth;
 
-    private final ItemVolumeProgressBinding binding;
+    private float titleBaseline;
+    private float labelBaseline;
+    private float labelCenterX;
 
     public VolumeProgress(Context context) {
         this(context, null);
     }
 
     public VolumeProgress(Context context, @Nullable AttributeSet attrs) {
-        this(context, attrs, -1);
+        this(context, attrs, 0);
     }
 
     public VolumeProgress(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        String title;
+        paddingHorizontal = dp2px(16);
+        titlePaddingTop = dp2px(12);
+        titlePaddingBottom = dp2px(8);
+        trackHeight = dp2px(24);
+        labelWidth = dp2px(36);
+
+        titlePaint.setColor(COLOR_TITLE);
+        titlePaint.setTextSize(sp2px(14));
+        labelPaint.setColor(COLOR_LABEL);
+        labelPaint.setTextSize(sp2px(16));
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        trackPaint.setStyle(Paint.Style.FILL);
+        trackPaint.setColor(COLOR_TRACK);
+        fillPaint.setStyle(Paint.Style.FILL);
+        fillPaint.setColor(COLOR_FILL);
+
+        setFocusable(true);
+        setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_YES);
+
+        // 布局中指定了 vpType 时直接绑定 列表中由 bind 方法绑定
         if (attrs != null) {
             TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.VolumeProgress);
-            title = array.getString(R.styleable.VolumeProgress_vpTitle);
-            streamType = array.getInt(R.styleable.VolumeProgress_vpType, -1);
+            String title = array.getString(R.styleable.VolumeProgress_vpTitle);
+            int streamType = array.getInt(R.styleable.VolumeProgress_vpType, -1);
             array.recycle();
-        } else {
-            title = "";
-            streamType = -1;
+            if (streamType >= 0) {
+                bind(streamType, title,
+                        Volume.getInstance().getMinVolume(streamType),
+                        Volume.getInstance().getMaxVolume(streamType));
+            }
         }
+    }
 
-        binding = DataBindingUtil.inflate(
-                LayoutInflater.from(context), R.layout.item_volume_progress, this, true);
-        if (Objects.nonNull(binding)) {
-            binding.setState(this);
-            binding.ivpTitle.setText(title);
-            binding.ivpProgress.setMax(Volume.getInstance().getMaxVolume(streamType));
-            binding.ivpProgress.setOnSeekBarChangeListener(this);
-        }
-        minVolume = Volume.getInstance().getMinVolume(streamType);
+    private float dp2px(float dpValue) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dpValue,
+                getResources().getDisplayMetrics());
+    }
+
+    private float sp2px(float spValue) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, spValue,
+                getResources().getDisplayMetrics());
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////
@@ -73,12 +151,45 @@ public final class VolumeProgress extends LinearLayout implements SeekBar.OnSeek
     /**
      * 当前进度
      */
-    public final ObservableInt progressLiveData = new ObservableInt(0);
+    private int progress = 0;
+
+    /**
+     * 是否正在滑动
+     * <p>
+     * 主要作用是禁止滑动时外部设置 progress 状态 防止视图抖动
+     */
+    private boolean isTracking = false;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // 开放接口
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * 绑定音量流
+     * <p>
+     * 列表复用时调用，只更新状态不重新测量；绑定新的音量流会结束正在进行的拖动
+     *
+     * @param title 标题，为 null 时不显示
+     */
+    public void bind(int streamType, @Nullable String title, int minVolume, int maxVolume) {
+        this.streamType = streamType;
+        this.title = title == null ? "" : title;
+        this.maxVolume = Math.max(0, maxVolume);
+        this.minVolume = Math.max(0, Math.min(minVolume, this.maxVolume));
+        ensureLabels(this.maxVolume);
+        isTracking = false;
+        progress = Math.max(this.minVolume, Math.min(this.maxVolume, progress));
+        setContentDescription(this.title);
+        invalidate();
+    }
+
+    /**
+     * 绑定的音量流，未绑定时为 -1
+     */
+    public int getStreamType() {
+        return streamType;
+    }
+
     /**
      * 设置进度
      */
@@ -86,51 +197,248 @@ public final class VolumeProgress extends LinearLayout implements SeekBar.OnSeek
         if (isTracking) {
             return;
         }
-        this.progressLiveData.set(progress);
+        boolean traced = VolumeTrace.beginSection("VolumeProgress.setProgress", streamType);
+        try {
+            updateProgress(progress);
+        } finally {
+            VolumeTrace.endSection(traced);
+        }
+    }
+
+    /**
+     * 当前进度
+     */
+    public int getProgress() {
+        return progress;
     }
 
     /**
-     * {@link SeekBar.OnSeekBarChangeListener}
+     * 限制范围后更新进度 只在数值改变时重绘
+     *
+     * @return 进度是否改变
      */
+    private boolean updateProgress(int progress) {
+        int value = Math.max(minVolume, Math.min(maxVolume, progress));
+        if (value == this.progress) {
+            return false;
+        }
+        this.progress = value;
+        invalidate();
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // 测量 绘制
+    ////////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
-    public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-        Log.i(TAG + "onProgressChanged",
-                "progress = " + progress + "; fromUser = " + fromUser);
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        Paint.FontMetrics titleMetrics = titlePaint.getFontMetrics();
+        float titleHeight = titleMetrics.descent - titleMetrics.ascent;
+        int height = (int) Math.ceil(titlePaddingTop + titleHeight + titlePaddingBottom + trackHeight);
+        setMeasuredDimension(
+                getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
 
-        // 音量最小值限制
-        if (progress < minVolume) {
-            binding.ivpProgress.setProgress(minVolume);
-            return;
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        Paint.FontMetrics titleMetrics = titlePaint.getFontMetrics();
+        titleBaseline = titlePaddingTop - titleMetrics.ascent;
+
+        float trackTop = h - trackHeight;
+        float labelRight = w - paddingHorizontal;
+        trackRect.set(paddingHorizontal, trackTop, labelRight - labelWidth, h);
+
+        Paint.FontMetrics labelMetrics = labelPaint.getFontMetrics();
+        labelCenterX = labelRight - labelWidth / 2;
+        labelBaseline = trackRect.centerY() - (labelMetrics.ascent + labelMetrics.descent) / 2;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        canvas.drawText(title, paddingHorizontal, titleBaseline, titlePaint);
+
+        float radius = trackRect.height() / 2;
+        canvas.drawRoundRect(trackRect, radius, radius, trackPaint);
+
+        // 与原 ClipDrawable 一致 裁剪整条圆角轨道得到进度
+        if (maxVolume > 0 && progress > 0) {
+            float right = trackRect.left + trackRect.width() * progress / maxVolume;
+            int save = canvas.save();
+            canvas.clipRect(trackRect.left, trackRect.top, right, trackRect.bottom);
+            canvas.drawRoundRect(trackRect, radius, radius, fillPaint);
+            canvas.restoreToCount(save);
         }
 
-        // 不是用户拖动改变音量 直接返回 防止重复设置导致视图抖动
-        if (!fromUser) {
-            return;
+        canvas.drawText(labels[progress], labelCenterX, labelBaseline, labelPaint);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // 拖动
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isAdjustable()) {
+            return false;
         }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                // 只响应轨道所在的一行
+                if (event.getY() < trackRect.top) {
+                    return false;
+                }
+                isTracking = true;
+                setPressed(true);
+                ViewParent parent = getParent();
+                if (parent != null) {
+                    parent.requestDisallowInterceptTouchEvent(true);
+                }
+                trackTo(event.getX());
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (isTracking) {
+                    trackTo(event.getX());
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (isTracking) {
+                    trackTo(event.getX());
+                    performClick();
+                }
+                stopTracking();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                stopTracking();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private void stopTracking() {
+        isTracking = false;
+        setPressed(false);
+    }
+
+    /**
+     * 根据触摸位置计算进度 数值改变时设置音量
+     */
+    private void trackTo(float x) {
+        float fraction = (x - trackRect.left) / trackRect.width();
+        changeProgress(Math.round(fraction * maxVolume));
+    }
 
-        // 拖动时改变状态文字
-        if (Objects.nonNull(binding)) {
-            binding.ivpProgressText.setText(String.valueOf(progress));
+    /**
+     * 用户修改进度 数值改变时设置音量
+     *
+     * @return 进度是否改变
+     */
+    private boolean changeProgress(int value) {
+        if (!updateProgress(value)) {
+            return false;
         }
-        // 设置音量
         Volume.getInstance().setVolume(streamType, progress, 0);
+        return true;
     }
 
     /**
-     * 是否正在滑动
-     * <p>
-     * 主要作用是禁止滑动时外部设置 progress 状态 防止视图抖动
+     * 是否可以由用户调节
      */
-    private boolean isTracking = false;
+    private boolean isAdjustable() {
+        return isEnabled() && streamType >= 0 && maxVolume > 0;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // 按键 无障碍
+    ////////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
-    public void onStartTrackingTouch(SeekBar seekBar) {
-        isTracking = true;
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (isAdjustable()) {
+            int step = 0;
+            switch (keyCode) {
+                case KeyEvent.KEYCODE_DPAD_LEFT:
+                case KeyEvent.KEYCODE_MINUS:
+                    step = -1;
+                    break;
+                case KeyEvent.KEYCODE_DPAD_RIGHT:
+                case KeyEvent.KEYCODE_PLUS:
+                case KeyEvent.KEYCODE_EQUALS:
+                    step = 1;
+                    break;
+                default:
+                    break;
+            }
+            if (0 != step) {
+                // 与 SeekBar 一致 从右到左布局时方向相反
+                if (LAYOUT_DIRECTION_RTL == getLayoutDirection()
+                        && (KeyEvent.KEYCODE_DPAD_LEFT == keyCode || KeyEvent.KEYCODE_DPAD_RIGHT == keyCode)) {
+                    step = -step;
+                }
+                if (changeProgress(progress + step)) {
+                    sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+                }
+                return true;
+            }
+        }
+        return super.onKeyDown(keyCode, event);
     }
 
     @Override
-    public void onStopTrackingTouch(SeekBar seekBar) {
-        isTracking = false;
+    public CharSequence getAccessibilityClassName() {
+        return SeekBar.class.getName();
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        info.setRangeInfo(AccessibilityNodeInfo.RangeInfo.obtain(
+                AccessibilityNodeInfo.RangeInfo.RANGE_TYPE_INT, minVolume, maxVolume, progress));
+        if (!isAdjustable()) {
+            return;
+        }
+        info.addAction(AccessibilityNodeInfo.AccessibilityAction.ACTION_SET_PROGRESS);
+        if (progress > minVolume) {
+            info.addAction(AccessibilityNodeInfo.AccessibilityAction.ACTION_SCROLL_BACKWARD);
+        }
+        if (progress < maxVolume) {
+            info.addAction(AccessibilityNodeInfo.AccessibilityAction.ACTION_SCROLL_FORWARD);
+        }
+    }
+
+    @Override
+    public boolean performAccessibilityAction(int action, @Nullable Bundle arguments) {
+        if (super.performAccessibilityAction(action, arguments)) {
+            return true;
+        }
+        if (!isAdjustable()) {
+            return false;
+        }
+        int value;
+        if (AccessibilityNodeInfo.ACTION_SCROLL_FORWARD == action) {
+            value = progress + 1;
+        } else if (AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD == action) {
+            value = progress - 1;
+        } else if (android.R.id.accessibilityActionSetProgress == action
+                && null != arguments
+                && arguments.containsKey(AccessibilityNodeInfo.ACTION_ARGUMENT_PROGRESS_VALUE)) {
+            value = (int) arguments.getFloat(AccessibilityNodeInfo.ACTION_ARGUMENT_PROGRESS_VALUE);
+        } else {
+            return false;
+        }
+        if (changeProgress(value)) {
+            sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+            return true;
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.ymk.tune.widget;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 音量面板中的一行
+ * <p>
+ * 由音量快照生成，不可变，供 DiffUtil 比较
+ *
+ * @author YMK
+ * @since 2025/12/13
+ */
+public final class VolumeRow {
+
+    public final int streamType;
+
+    /**
+     * 生成时的音量，未知时为 {@link com.ymk.volume.VolumeSnapshot#UNKNOWN}
+     */
+    public final int volume;
+
+    public final int minVolume;
+
+    public final int maxVolume;
+
+    public VolumeRow(int streamType, int volume, int minVolume, int maxVolume) {
+        this.streamType = streamType;
+        this.volume = volume;
+        this.minVolume = minVolume;
+        this.maxVolume = maxVolume;
+    }
+
+    /**
+     * 音量范围是否相同，范围改变时需要重新绑定
+     */
+    boolean sameRange(@NonNull VolumeRow other) {
+        return minVolume == other.minVolume && maxVolume == other.maxVolume;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VolumeRow)) {
+            return false;
+        }
+        VolumeRow that = (VolumeRow) o;
+        return streamType == that.streamType && volume == that.volume && sameRange(that);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = streamType;
+        result = 31 * result + volume;
+        result = 31 * result + minVolume;
+        result = 31 * result + maxVolume;
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VolumeRow{streamType=" + streamType + ", volume=" + volume
+                + ", range=[" + minVolume + ", " + maxVolume + "]}";
+    }
+}
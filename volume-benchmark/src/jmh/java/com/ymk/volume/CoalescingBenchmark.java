@@ -0,0 +1,54 @@
+package com.ymk.volume;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连续写入合并
+ * <p>
+ * 模拟拖动进度条时的一连串写入，测量提交整串写入并等待写入完成的耗时。
+ * 合并生效时耗时不应随写入次数线性增长
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CoalescingBenchmark {
+
+    @Param({"1", "16", "256"})
+    public int burst;
+
+    private NullAudioBackend backend;
+
+    private VolumeCore core;
+
+    private int base;
+
+    @Setup
+    public void setUp() {
+        backend = new NullAudioBackend();
+        core = new VolumeCore(backend, VolumeCore.NO_PUBLISHER);
+        core.loadRange(StreamTypes.STREAM_MUSIC);
+    }
+
+    @Benchmark
+    public int burst() {
+        VolumeWriter writer = core.getVolumeWriter();
+        base++;
+        for (int i = 0; i < burst; i++) {
+            writer.submit(StreamTypes.STREAM_MUSIC, (base + i) % (NullAudioBackend.MAX_VOLUME + 1), 0);
+        }
+        writer.flush(1, TimeUnit.SECONDS);
+        return backend.getWrites();
+    }
+}
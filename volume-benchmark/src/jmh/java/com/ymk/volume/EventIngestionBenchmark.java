@@ -0,0 +1,71 @@
+package com.ymk.volume;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 状态改变接收吞吐量
+ * <p>
+ * 从收到系统状态改变到更新状态表、通知写入管线与渐变的完整过程，
+ * 分别测量值改变、重复值被过滤以及多线程同时接收的情况
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventIngestionBenchmark {
+
+    private VolumeCore core;
+
+    private int value;
+
+    @Setup
+    public void setUp() {
+        core = new VolumeCore(new NullAudioBackend(), VolumeCore.NO_PUBLISHER);
+        for (int streamType : new int[]{StreamTypes.STREAM_MUSIC, StreamTypes.STREAM_RING}) {
+            core.loadRange(streamType);
+            core.publishVolume(streamType, 0);
+        }
+    }
+
+    @Benchmark
+    public int changed() {
+        value = (value + 1) % NullAudioBackend.MAX_VOLUME;
+        return core.publishVolume(StreamTypes.STREAM_MUSIC, value);
+    }
+
+    @Benchmark
+    public int duplicate() {
+        return core.publishVolume(StreamTypes.STREAM_RING, 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int changedContended(ThreadValue threadValue) {
+        return core.publishVolume(StreamTypes.STREAM_MUSIC, threadValue.next());
+    }
+
+    /**
+     * 每个线程独立的音量值，避免线程间共享计数器
+     */
+    @State(Scope.Thread)
+    public static class ThreadValue {
+
+        private int value;
+
+        int next() {
+            value = (value + 1) % NullAudioBackend.MAX_VOLUME;
+            return value;
+        }
+    }
+}
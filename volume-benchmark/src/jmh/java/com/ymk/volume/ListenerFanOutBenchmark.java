@@ -0,0 +1,66 @@
+package com.ymk.volume;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基本类型监听分发
+ * <p>
+ * 一次音量改变分发给不同数量监听的耗时，分别测量直接回调与经过 {@link ListenerRegistry.Poster} 的回调
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ListenerFanOutBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int listeners;
+
+    private final ListenerRegistry direct = new ListenerRegistry();
+
+    private final ListenerRegistry posted = new ListenerRegistry();
+
+    private int value;
+
+    /**
+     * 监听收到的值之和，作为返回值避免分发被优化掉
+     */
+    private long sum;
+
+    @Setup
+    public void setUp() {
+        // 在当前线程直接投递，只测量分发本身
+        ListenerRegistry.Poster poster = ListenerRegistry::deliver;
+        for (int i = 0; i < listeners; i++) {
+            direct.addVolumeListener(this::onVolume, null);
+            posted.addVolumeListener(this::onVolume, poster);
+        }
+    }
+
+    private void onVolume(int streamType, int value) {
+        sum += value;
+    }
+
+    @Benchmark
+    public long direct() {
+        direct.dispatchVolume(StreamTypes.STREAM_MUSIC, ++value);
+        return sum;
+    }
+
+    @Benchmark
+    public long posted() {
+        posted.dispatchVolume(StreamTypes.STREAM_MUSIC, ++value);
+        return sum;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ymk.volume;
+
+/**
+ * 基准测试使用的音频服务
+ * <p>
+ * 只记录写入次数，不模拟系统行为，避免系统侧的开销混入测量结果
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+final class NullAudioBackend implements AudioBackend {
+
+    static final int MAX_VOLUME = 15;
+
+    private final int[] volumes = new int[StreamStateTable.CAPACITY];
+
+    private volatile int writes;
+
+    int getWrites() {
+        return writes;
+    }
+
+    @Override
+    public int getVolume(int streamType) {
+        return volumes[streamType];
+    }
+
+    @Override
+    public boolean setVolume(int streamType, int volume, int flags) {
+        volumes[streamType] = volume;
+        writes++;
+        return true;
+    }
+
+    @Override
+    public void adjustVolume(int streamType, boolean isAdd, int flags) {
+        setVolume(streamType, volumes[streamType] + (isAdd ? 1 : -1), flags);
+    }
+
+    @Override
+    public int getMinVolume(int streamType) {
+        return 0;
+    }
+
+    @Override
+    public int getMaxVolume(int streamType) {
+        return MAX_VOLUME;
+    }
+
+    @Override
+    public boolean isMute(int streamType) {
+        return false;
+    }
+
+    @Override
+    public boolean setMute(int streamType, boolean isMute, int flags) {
+        return true;
+    }
+
+    @Override
+    public int getRingMode() {
+        return 2;
+    }
+
+    @Override
+    public boolean setRingMode(int ringMode) {
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ymk.volume;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 状态读取
+ * <p>
+ * 主线程读取音量、静音状态、快照的开销，以 ConcurrentHashMap 作为对照
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateLookupBenchmark {
+
+    private final StreamStateTable table = new StreamStateTable();
+
+    private final ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+
+    private int streamType;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            table.setRange(i, 0, NullAudioBackend.MAX_VOLUME);
+            table.setVolume(i, i % NullAudioBackend.MAX_VOLUME);
+            table.setMute(i, 0 == i % 2);
+            map.put(i, i % NullAudioBackend.MAX_VOLUME);
+        }
+        table.setRingMode(2);
+        streamType = StreamTypes.STREAM_MUSIC;
+    }
+
+    @Benchmark
+    public int getVolume() {
+        return table.getVolume(streamType);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int getVolumeContended() {
+        return table.getVolume(streamType);
+    }
+
+    @Benchmark
+    public boolean isMute() {
+        return table.isMute(streamType);
+    }
+
+    @Benchmark
+    public VolumeSnapshot snapshot() {
+        return table.snapshot();
+    }
+
+    @Benchmark
+    public Integer concurrentHashMap() {
+        return map.get(streamType);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ymk.volume;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 状态写入
+ * <p>
+ * 接收线程收到广播后写入音量、静音状态的开销，以原实现的 ConcurrentHashMap 加装箱值作为对照
+ *
+ * @author YMK
+ * @since 2025/12/14
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateWriteBenchmark {
+
+    private static final int[] STREAMS = {0, 1, 2, 3, 4, 5, 8, 10};
+
+    private final StreamStateTable table = new StreamStateTable();
+
+    private final ConcurrentHashMap<Integer, Integer> volumeMap = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Integer, Boolean> muteMap = new ConcurrentHashMap<>();
+
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        for (int stream : STREAMS) {
+            table.setVolume(stream, 0);
+            table.setMute(stream, false);
+            volumeMap.put(stream, 0);
+            muteMap.put(stream, false);
+        }
+    }
+
+    @Benchmark
+    public int setVolume() {
+        int i = counter++;
+        return table.getAndSetVolume(STREAMS[i & 7], i & 15);
+    }
+
+    @Benchmark
+    public void setVolumeAndMute() {
+        int i = counter++;
+        int stream = STREAMS[i & 7];
+        table.setVolume(stream, i & 15);
+        table.setMute(stream, (i & 16) != 0);
+    }
+
+    @Benchmark
+    public Integer concurrentHashMap() {
+        int i = counter++;
+        return volumeMap.put(STREAMS[i & 7], i & 15);
+    }
+
+    @Benchmark
+    public Boolean concurrentHashMapAndMute() {
+        int i = counter++;
+        int stream = STREAMS[i & 7];
+        volumeMap.put(stream, i & 15);
+        return muteMap.put(stream, (i & 16) != 0);
+    }
+}
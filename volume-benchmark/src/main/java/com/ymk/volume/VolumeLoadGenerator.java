@@ -0,0 +1,345 @@
+package com.ymk.volume;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 音量库压力测试
+ * <p>
+ * 以 {@link FakeAudioBackend} 代替系统音频服务，按指定频率模拟长按音量键、切换输出设备以及多个线程同时写入，
+ * 状态改变经过接收线程进入 {@link VolumeCore}，再以与 LiveData.postValue 相同的方式（每个音量流只保留最新值）
+ * 投递到模拟的主线程。结束后输出分发延迟、被覆盖的更新、写入合并情况、堆内存增长，以及状态表与系统状态是否一致
+ * <p>
+ * 运行：{@code ./gradlew :volume-benchmark:run --args="--key-rate=2000 --writers=4 --duration=10"}
+ *
+ * @author YMK
+ * @since 2025/12/11
+ */
+public final class VolumeLoadGenerator {
+
+    /**
+     * 压力配置
+     */
+    static final class Config {
+
+        /**
+         * 每秒模拟的音量键次数
+         */
+        int keyRate = 1000;
+
+        /**
+         * 每秒切换输出设备的次数
+         */
+        int routeRate = 1;
+
+        /**
+         * 同时写入的线程数
+         */
+        int writers = 2;
+
+        /**
+         * 每个写入线程每秒写入的次数
+         */
+        int writeRate = 500;
+
+        /**
+         * 主线程每次分发额外占用的时间，模拟繁忙的主线程
+         */
+        long mainWorkMicros = 0L;
+
+        /**
+         * 持续时间
+         */
+        long durationSeconds = 5L;
+
+        /**
+         * 随机数种子，相同的种子产生相同的操作序列
+         */
+        long seed = 1L;
+
+        static Config parse(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                int split = arg.indexOf('=');
+                if (!arg.startsWith("--") || split < 0) {
+                    throw new IllegalArgumentException("unknown argument: " + arg);
+                }
+                String key = arg.substring(2, split);
+                long value = Long.parseLong(arg.substring(split + 1));
+                switch (key) {
+                    case "key-rate":
+                        config.keyRate = (int) value;
+                        break;
+                    case "route-rate":
+                        config.routeRate = (int) value;
+                        break;
+                    case "writers":
+                        config.writers = (int) value;
+                        break;
+                    case "write-rate":
+                        config.writeRate = (int) value;
+                        break;
+                    case "main-work-us":
+                        config.mainWorkMicros = value;
+                        break;
+                    case "duration":
+                        config.durationSeconds = value;
+                        break;
+                    case "seed":
+                        config.seed = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown argument: " + arg);
+                }
+            }
+            return config;
+        }
+    }
+
+    private static final int[] STREAMS = {
+            StreamTypes.STREAM_RING,
+            StreamTypes.STREAM_MUSIC,
+            StreamTypes.STREAM_ALARM,
+    };
+
+    private final Config config;
+
+    private final FakeAudioBackend backend = new FakeAudioBackend();
+
+    /**
+     * 接收线程，对应注册广播时指定的 Handler 线程
+     */
+    private final ExecutorService receiver = Executors.newSingleThreadExecutor(r -> new Thread(r, "Load-Receiver"));
+
+    /**
+     * 模拟的主线程
+     */
+    private final ExecutorService main = Executors.newSingleThreadExecutor(r -> new Thread(r, "Load-Main"));
+
+    /**
+     * 等待投递到主线程的最新音量，与 LiveData 的 mPendingData 相同
+     */
+    private final AtomicIntegerArray pending = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 主线程最后收到的音量
+     */
+    private final AtomicIntegerArray delivered = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    private final Runnable[] dispatchTasks = new Runnable[StreamStateTable.CAPACITY];
+
+    private final AtomicLong received = new AtomicLong();
+
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private final VolumeCore core;
+
+    VolumeLoadGenerator(Config config) {
+        this.config = config;
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            pending.set(i, StreamStateTable.UNKNOWN);
+            delivered.set(i, StreamStateTable.UNKNOWN);
+            final int streamType = i;
+            dispatchTasks[i] = () -> dispatch(streamType);
+        }
+        core = new VolumeCore(backend, new VolumeCore.Publisher() {
+            @Override
+            public void onVolume(int streamType, int value) {
+                post(streamType, value);
+            }
+
+            @Override
+            public void onMute(int streamType, boolean isMute) {
+            }
+
+            @Override
+            public void onRingMode(int ringMode) {
+            }
+        });
+        backend.setExecutor(receiver);
+        backend.setListener(new FakeAudioBackend.Listener() {
+            @Override
+            public void onVolumeChanged(int streamType, int value, int preValue) {
+                received.incrementAndGet();
+                VolumeMetrics.count(VolumeMetrics.BROADCAST_VOLUME);
+                VolumeMetrics.onReceived(streamType);
+                core.publishVolume(streamType, value);
+            }
+
+            @Override
+            public void onMuteChanged(int streamType, boolean isMute) {
+                received.incrementAndGet();
+                VolumeMetrics.count(VolumeMetrics.BROADCAST_MUTE);
+                core.publishMute(streamType, isMute);
+            }
+
+            @Override
+            public void onRingModeChanged(int ringMode) {
+                received.incrementAndGet();
+                VolumeMetrics.count(VolumeMetrics.BROADCAST_RING_MODE);
+                core.publishRingMode(ringMode);
+            }
+        });
+    }
+
+    /**
+     * 与 LiveData.postValue 相同：已经有等待投递的值时只替换，不再投递
+     */
+    private void post(int streamType, int value) {
+        VolumeMetrics.count(VolumeMetrics.POST_VALUE);
+        if (StreamStateTable.UNKNOWN != pending.getAndSet(streamType, value)) {
+            VolumeMetrics.count(VolumeMetrics.POST_VALUE_DROPPED);
+            return;
+        }
+        main.execute(dispatchTasks[streamType]);
+    }
+
+    private void dispatch(int streamType) {
+        int value = pending.getAndSet(streamType, StreamStateTable.UNKNOWN);
+        delivered.set(streamType, value);
+        dispatched.incrementAndGet();
+        VolumeMetrics.onDispatched(streamType);
+        if (config.mainWorkMicros > 0) {
+            long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(config.mainWorkMicros);
+            while (System.nanoTime() < end) {
+                // 忙等 模拟主线程上的布局、绘制
+            }
+        }
+    }
+
+    /**
+     * 按固定频率执行，直到 deadline
+     */
+    private static Thread pace(String name, final int ratePerSecond, final long deadline, final Runnable task) {
+        Thread thread = new Thread(() -> {
+            if (ratePerSecond <= 0) {
+                return;
+            }
+            long period = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+            long next = System.nanoTime();
+            while (next < deadline) {
+                task.run();
+                next += period;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    String run() throws InterruptedException {
+        VolumeMetrics.reset();
+        for (int streamType : STREAMS) {
+            core.loadRange(streamType);
+            core.publishVolume(streamType, backend.getVolume(streamType));
+        }
+        long heapBefore = usedHeap();
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        final int max = backend.getMaxVolume(StreamTypes.STREAM_MUSIC);
+        Thread[] threads = new Thread[2 + config.writers];
+        threads[0] = pace("Load-Key", config.keyRate, deadline, new Runnable() {
+            private boolean up = true;
+
+            @Override
+            public void run() {
+                int volume = backend.getVolume(StreamTypes.STREAM_MUSIC);
+                if (volume >= max) {
+                    up = false;
+                } else if (volume <= 0) {
+                    up = true;
+                }
+                backend.adjustVolume(StreamTypes.STREAM_MUSIC, up, 0);
+            }
+        });
+        final Random routeRandom = new Random(config.seed);
+        threads[1] = pace("Load-Route", config.routeRate, deadline, () -> {
+            int[] volumes = new int[StreamStateTable.CAPACITY];
+            for (int i = 0; i < volumes.length; i++) {
+                volumes[i] = routeRandom.nextInt(max + 1);
+            }
+            backend.simulateRouteChange(volumes);
+        });
+        for (int w = 0; w < config.writers; w++) {
+            final Random random = new Random(config.seed + 1 + w);
+            threads[2 + w] = pace("Load-Writer-" + w, config.writeRate, deadline, () -> {
+                int streamType = STREAMS[random.nextInt(STREAMS.length)];
+                core.getVolumeWriter().submit(streamType, random.nextInt(max + 1), 0);
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // 等待写入、接收、分发全部完成
+        core.getVolumeWriter().flush(5, TimeUnit.SECONDS);
+        drain(receiver);
+        drain(main);
+        long heapAfter = usedHeap();
+
+        int mismatches = 0;
+        for (int streamType : STREAMS) {
+            int system = backend.getVolume(streamType);
+            if (core.getStateTable().getVolume(streamType) != system) {
+                mismatches++;
+            }
+            int last = delivered.get(streamType);
+            if (StreamStateTable.UNKNOWN != last && last != system) {
+                mismatches++;
+            }
+        }
+        return report(heapAfter - heapBefore, mismatches);
+    }
+
+    private String report(long heapGrowth, int mismatches) {
+        VolumeMetricsSnapshot metrics = VolumeMetrics.snapshot();
+        VolumeMetricsSnapshot.Histogram lag = metrics.getHistogram("broadcast_to_dispatch");
+        StringBuilder builder = new StringBuilder();
+        line(builder, "received", received.get());
+        line(builder, "dispatched", dispatched.get());
+        line(builder, "post_value", metrics.getCounter("post_value"));
+        line(builder, "post_value.dropped", metrics.getCounter("post_value.dropped"));
+        line(builder, "write.submitted", metrics.getCounter("write.submitted"));
+        line(builder, "write.coalesced", metrics.getCounter("write.coalesced"));
+        line(builder, "write.elided", metrics.getCounter("write.elided"));
+        line(builder, "write.committed", metrics.getCounter("write.committed"));
+        line(builder, "backend.writes", backend.getWrites());
+        line(builder, "lag.p50_us", lag.getPercentileMicros(50));
+        line(builder, "lag.p99_us", lag.getPercentileMicros(99));
+        line(builder, "lag.max_us", lag.getMaxMicros());
+        line(builder, "heap.growth_kb", heapGrowth / 1024);
+        line(builder, "final.mismatches", mismatches);
+        return builder.toString();
+    }
+
+    private static void line(StringBuilder builder, String name, long value) {
+        builder.append(String.format(Locale.ROOT, "%-20s: %d%n", name, value));
+    }
+
+    private static void drain(ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.print(new VolumeLoadGenerator(Config.parse(args)).run());
+        System.exit(0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ymk.volume;
+
+/**
+ * 系统音频服务的抽象
+ * <p>
+ * 状态表、写入管线、渐变都只通过该接口读写系统状态，不依赖 Android 平台，
+ * 可以在 JVM 上直接测试和基准测试。Android 上由 AudioManager 实现
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+public interface AudioBackend {
+
+    /**
+     * 获取音量
+     */
+    int getVolume(int streamType);
+
+    /**
+     * 设置音量
+     *
+     * @return 是否设置成功
+     */
+    boolean setVolume(int streamType, int volume, int flags);
+
+    /**
+     * 将音量调高或调低一档
+     */
+    void adjustVolume(int streamType, boolean isAdd, int flags);
+
+    /**
+     * 获取最小音量
+     */
+    int getMinVolume(int streamType);
+
+    /**
+     * 获取最大音量
+     */
+    int getMaxVolume(int streamType);
+
+    /**
+     * 是否静音
+     */
+    boolean isMute(int streamType);
+
+    /**
+     * 设置静音状态
+     *
+     * @return 是否设置成功
+     */
+    boolean setMute(int streamType, boolean isMute, int flags);
+
+    /**
+     * 获取响铃模式
+     */
+    int getRingMode();
+
+    /**
+     * 设置响铃模式
+     *
+     * @return 是否设置成功
+     */
+    boolean setRingMode(int ringMode);
+}
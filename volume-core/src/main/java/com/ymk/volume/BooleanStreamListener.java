@@ -0,0 +1,17 @@
+package com.ymk.volume;
+
+/**
+ * 静音状态监听
+ * <p>
+ * 基本类型回调，分发过程不装箱、不分配对象。通过 {@link Volume#addMuteListener(BooleanStreamListener, android.os.Looper)} 注册
+ *
+ * @author YMK
+ * @since 2025/11/29
+ */
+public interface BooleanStreamListener {
+
+    /**
+     * 静音状态改变
+     */
+    void onMute(int streamType, boolean isMute);
+}
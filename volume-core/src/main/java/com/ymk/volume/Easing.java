@@ -0,0 +1,37 @@
+package com.ymk.volume;
+
+/**
+ * 音量渐变的缓动曲线
+ * <p>
+ * 输入为时间进度 [0, 1]，输出为音量进度 [0, 1]，必须单调递增，并满足 f(0) = 0、f(1) = 1
+ *
+ * @author YMK
+ * @since 2025/12/01
+ */
+public interface Easing {
+
+    /**
+     * 匀速
+     */
+    Easing LINEAR = t -> t;
+
+    /**
+     * 先慢后快
+     */
+    Easing EASE_IN = t -> t * t;
+
+    /**
+     * 先快后慢
+     */
+    Easing EASE_OUT = t -> t * (2 - t);
+
+    /**
+     * 两端慢中间快
+     */
+    Easing EASE_IN_OUT = t -> (float) (Math.cos((t + 1) * Math.PI) / 2 + 0.5);
+
+    /**
+     * 时间进度转换为音量进度
+     */
+    float apply(float t);
+}
@@ -0,0 +1,17 @@
+package com.ymk.volume;
+
+/**
+ * 音量监听
+ * <p>
+ * 基本类型回调，分发过程不装箱、不分配对象。通过 {@link Volume#addVolumeListener(IntStreamListener, android.os.Looper)} 注册
+ *
+ * @author YMK
+ * @since 2025/11/29
+ */
+public interface IntStreamListener {
+
+    /**
+     * 音量改变
+     */
+    void onVolume(int streamType, int value);
+}
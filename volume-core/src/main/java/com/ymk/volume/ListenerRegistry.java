@@ -0,0 +1,175 @@
+package com.ymk.volume;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 基本类型监听注册表
+ * <p>
+ * 监听保存在 copy-on-write 数组中，分发时直接遍历数组。
+ * 需要切换线程的监听交给 {@link Poster}，音量值以 arg1 / arg2 传递（Android 上通过 Message 对象池），
+ * 整个分发过程不装箱、不分配对象
+ *
+ * @author YMK
+ * @since 2025/11/29
+ */
+final class ListenerRegistry {
+
+    static final int MSG_VOLUME = 1;
+    static final int MSG_MUTE = 2;
+    static final int MSG_RING_MODE = 3;
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    /**
+     * 将回调切换到目标线程
+     * <p>
+     * 在目标线程调用 {@link #deliver(int, int, int, Object)}
+     */
+    interface Poster {
+
+        void post(int what, int arg1, int arg2, Object listener);
+    }
+
+    /**
+     * 监听及其分发线程
+     */
+    private static final class Entry {
+
+        final Object listener;
+
+        /**
+         * 为 null 时在状态更新的线程直接回调
+         */
+        @Nullable
+        final Poster poster;
+
+        Entry(Object listener, @Nullable Poster poster) {
+            this.listener = listener;
+            this.poster = poster;
+        }
+    }
+
+    /**
+     * 在目标线程执行回调
+     *
+     * @return 是否是监听消息
+     */
+    static boolean deliver(int what, int arg1, int arg2, Object listener) {
+        switch (what) {
+            case MSG_VOLUME:
+                ((IntStreamListener) listener).onVolume(arg1, arg2);
+                return true;
+            case MSG_MUTE:
+                ((BooleanStreamListener) listener).onMute(arg1, 0 != arg2);
+                return true;
+            case MSG_RING_MODE:
+                ((RingModeListener) listener).onRingMode(arg1);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private volatile Entry[] volumeListeners = EMPTY;
+
+    private volatile Entry[] muteListeners = EMPTY;
+
+    private volatile Entry[] ringModeListeners = EMPTY;
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 注册
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized void addVolumeListener(IntStreamListener listener, @Nullable Poster poster) {
+        volumeListeners = add(volumeListeners, listener, poster);
+    }
+
+    synchronized void removeVolumeListener(IntStreamListener listener) {
+        volumeListeners = remove(volumeListeners, listener);
+    }
+
+    synchronized void addMuteListener(BooleanStreamListener listener, @Nullable Poster poster) {
+        muteListeners = add(muteListeners, listener, poster);
+    }
+
+    synchronized void removeMuteListener(BooleanStreamListener listener) {
+        muteListeners = remove(muteListeners, listener);
+    }
+
+    synchronized void addRingModeListener(RingModeListener listener, @Nullable Poster poster) {
+        ringModeListeners = add(ringModeListeners, listener, poster);
+    }
+
+    synchronized void removeRingModeListener(RingModeListener listener) {
+        ringModeListeners = remove(ringModeListeners, listener);
+    }
+
+    /**
+     * 是否没有任何监听
+     */
+    boolean isEmpty() {
+        return 0 == volumeListeners.length && 0 == muteListeners.length && 0 == ringModeListeners.length;
+    }
+
+    private static Entry[] add(Entry[] entries, Object listener, @Nullable Poster poster) {
+        for (Entry entry : entries) {
+            if (entry.listener == listener) {
+                return entries;
+            }
+        }
+        Entry[] update = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, update, 0, entries.length);
+        update[entries.length] = new Entry(listener, poster);
+        return update;
+    }
+
+    private static Entry[] remove(Entry[] entries, Object listener) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].listener != listener) {
+                continue;
+            }
+            if (1 == entries.length) {
+                return EMPTY;
+            }
+            Entry[] update = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, update, 0, i);
+            System.arraycopy(entries, i + 1, update, i, entries.length - i - 1);
+            return update;
+        }
+        return entries;
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 分发
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    void dispatchVolume(int streamType, int value) {
+        for (Entry entry : volumeListeners) {
+            if (null == entry.poster) {
+                ((IntStreamListener) entry.listener).onVolume(streamType, value);
+            } else {
+                entry.poster.post(MSG_VOLUME, streamType, value, entry.listener);
+            }
+        }
+    }
+
+    void dispatchMute(int streamType, boolean isMute) {
+        for (Entry entry : muteListeners) {
+            if (null == entry.poster) {
+                ((BooleanStreamListener) entry.listener).onMute(streamType, isMute);
+            } else {
+                entry.poster.post(MSG_MUTE, streamType, isMute ? 1 : 0, entry.listener);
+            }
+        }
+    }
+
+    void dispatchRingMode(int ringMode) {
+        for (Entry entry : ringModeListeners) {
+            if (null == entry.poster) {
+                ((RingModeListener) entry.listener).onRingMode(ringMode);
+            } else {
+                entry.poster.post(MSG_RING_MODE, ringMode, 0, entry.listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * 状态改变监听
+ * <p>
+ * 在主线程回调，通过 {@link Volume#addOnVolumeChangeListener(OnVolumeChangeListener)} 注册
+ *
+ * @author YMK
+ * @since 2025/11/28
+ */
+public interface OnVolumeChangeListener {
+
+    /**
+     * 状态改变
+     */
+    void onVolumeChange(@NonNull VolumeChangeEvent event);
+
+    /**
+     * 批量修改产生的多个状态改变，只回调一次
+     * <p>
+     * 默认逐个回调 {@link #onVolumeChange(VolumeChangeEvent)}，需要合并刷新界面时重写该方法
+     */
+    default void onVolumeChanges(@NonNull List<VolumeChangeEvent> events) {
+        for (VolumeChangeEvent event : events) {
+            onVolumeChange(event);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.ymk.volume;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 音量渐变引擎
+ * <p>
+ * 音量只能取整数档位，渐变时只在音量真正需要变化的时间点写入：
+ * 从 from 到 to 共 n 档，第 k 档的写入时间为缓动曲线达到 k / n 的时刻。
+ * 所有渐变共用 {@link VolumeWorker} 调度，每个音量流同时只有一个渐变，新的渐变会替换旧的
+ * <p>
+ * 其他地方修改了正在渐变的音量流时渐变会被取消
+ *
+ * @author YMK
+ * @since 2025/12/01
+ */
+final class RampEngine {
+
+    /**
+     * 反解缓动曲线的二分次数
+     */
+    private static final int SOLVE_ITERATIONS = 20;
+
+    /**
+     * 渐变写入的目标
+     */
+    interface Target {
+
+        /**
+         * 当前音量，在工作线程调用
+         */
+        int getVolume(int streamType);
+
+        /**
+         * 将音量限制在合法范围内
+         */
+        int clamp(int streamType, int volume);
+
+        /**
+         * 写入音量，在工作线程调用
+         */
+        void setVolume(int streamType, int volume, int flags);
+    }
+
+    private final VolumeWorker worker;
+
+    private final Target target;
+
+    /**
+     * 正在进行的渐变
+     */
+    private final AtomicReferenceArray<Ramp> ramps = new AtomicReferenceArray<>(StreamStateTable.CAPACITY);
+
+    RampEngine(VolumeWorker worker, Target target) {
+        this.worker = worker;
+        this.target = target;
+    }
+
+    /**
+     * 开始渐变
+     *
+     * @return 渐变完成时结果为 true，被取消时为 false
+     */
+    CompletableFuture<Boolean> start(final int streamType, final int to, final long durationMs,
+                                     final Easing easing, final int flags) {
+        final Ramp ramp = new Ramp(streamType, to, durationMs, easing, flags);
+        Ramp previous = ramps.getAndSet(streamType, ramp);
+        if (null != previous) {
+            previous.cancel();
+        }
+        worker.execute(ramp::begin);
+        return ramp.result;
+    }
+
+    /**
+     * 取消某个音量流的渐变
+     */
+    void cancel(int streamType) {
+        if (!StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        Ramp ramp = ramps.getAndSet(streamType, null);
+        if (null != ramp) {
+            ramp.cancel();
+        }
+    }
+
+    /**
+     * 取消所有渐变，逆初始化时调用
+     */
+    void cancelAll() {
+        for (int i = 0; i < ramps.length(); i++) {
+            cancel(i);
+        }
+    }
+
+    /**
+     * 某个音量流是否正在渐变
+     */
+    boolean isRamping(int streamType) {
+        return StreamStateTable.isValid(streamType) && null != ramps.get(streamType);
+    }
+
+    /**
+     * 收到系统音量
+     * <p>
+     * 渐变写入的广播会延迟到达，只要音量处于已经走过的区间就认为是渐变自身的写入，
+     * 否则说明有其他地方修改了音量，取消渐变
+     */
+    void onSystemVolume(int streamType, int volume) {
+        if (!StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        Ramp ramp = ramps.get(streamType);
+        if (null != ramp && ramp.started && !ramp.isPassed(volume)) {
+            if (ramps.compareAndSet(streamType, ramp, null)) {
+                ramp.cancel();
+            }
+        }
+    }
+
+    /**
+     * 计算每一档的写入时间
+     *
+     * @return [k] = 第 k + 1 档相对开始时间的毫秒数
+     */
+    static long[] schedule(int steps, long durationMs, Easing easing) {
+        long[] times = new long[steps];
+        for (int k = 1; k <= steps; k++) {
+            float progress = (float) k / steps;
+            // 二分求缓动曲线首次达到 progress 的时间
+            float low = 0f;
+            float high = 1f;
+            for (int i = 0; i < SOLVE_ITERATIONS; i++) {
+                float mid = (low + high) / 2;
+                if (easing.apply(mid) >= progress) {
+                    high = mid;
+                } else {
+                    low = mid;
+                }
+            }
+            times[k - 1] = Math.round(high * durationMs);
+        }
+        return times;
+    }
+
+    /**
+     * 一次渐变
+     */
+    private final class Ramp implements Runnable {
+
+        final int streamType;
+
+        final long durationMs;
+
+        final Easing easing;
+
+        final int flags;
+
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        int to;
+
+        int from;
+
+        int direction;
+
+        long[] stepTimes;
+
+        /**
+         * 已经写入的步数，只有工作线程写入，接收线程在 {@link #isPassed(int)} 中读取
+         */
+        volatile int step;
+
+        long startTime;
+
+        volatile boolean started;
+
+        volatile boolean cancelled;
+
+        volatile ScheduledFuture<?> next;
+
+        Ramp(int streamType, int to, long durationMs, Easing easing, int flags) {
+            this.streamType = streamType;
+            this.to = to;
+            this.durationMs = Math.max(0L, durationMs);
+            this.easing = easing;
+            this.flags = flags;
+        }
+
+        /**
+         * 在工作线程开始
+         */
+        void begin() {
+            if (cancelled) {
+                return;
+            }
+            from = target.getVolume(streamType);
+            to = target.clamp(streamType, to);
+            if (StreamStateTable.UNKNOWN == from || from == to || 0 == durationMs) {
+                target.setVolume(streamType, to, flags);
+                finish(true);
+                return;
+            }
+            direction = to > from ? 1 : -1;
+            stepTimes = schedule(Math.abs(to - from), durationMs, easing);
+            startTime = System.nanoTime();
+            started = true;
+            scheduleNext();
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            // 先发布步数再写入 写入产生的广播一定能看到这一步
+            int current = step + 1;
+            step = current;
+            target.setVolume(streamType, from + direction * current, flags);
+            if (current == stepTimes.length) {
+                finish(true);
+            } else {
+                scheduleNext();
+            }
+        }
+
+        private void scheduleNext() {
+            long elapsed = (System.nanoTime() - startTime) / 1_000_000L;
+            next = worker.schedule(this, Math.max(0L, stepTimes[step] - elapsed));
+        }
+
+        /**
+         * 音量是否处于已经走过的区间
+         */
+        boolean isPassed(int volume) {
+            int current = from + direction * step;
+            return direction > 0 ? volume >= from && volume <= current : volume <= from && volume >= current;
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> future = next;
+            if (null != future) {
+                future.cancel(false);
+            }
+            result.complete(false);
+        }
+
+        private void finish(boolean completed) {
+            ramps.compareAndSet(streamType, this, null);
+            result.complete(completed);
+        }
+    }
+}
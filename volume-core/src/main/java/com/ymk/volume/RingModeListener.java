@@ -0,0 +1,17 @@
+package com.ymk.volume;
+
+/**
+ * 响铃模式监听
+ * <p>
+ * 基本类型回调，分发过程不装箱、不分配对象。通过 {@link Volume#addRingModeListener(RingModeListener, android.os.Looper)} 注册
+ *
+ * @author YMK
+ * @since 2025/11/29
+ */
+public interface RingModeListener {
+
+    /**
+     * 响铃模式改变
+     */
+    void onRingMode(int ringMode);
+}
@@ -0,0 +1,556 @@
+package com.ymk.volume;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 音量流状态表
+ * <p>
+ * 以 streamType 作为下标，每个音量流占用一个 long 槽位，打包存储：
+ * <pre>
+ * | 63 ........ 32 | 31 .. 19 |    18     |  17  |     16      | 15 ........ 0 |
+ * |    version     |  unused  | muteKnown | mute | volumeKnown |    volume     |
+ * </pre>
+ * 音量范围（min / max）单独存放，打包方式为 rangeKnown(bit 32) | min(bit 16..31) | max(bit 0..15)
+ * <p>
+ * 所有读写均为基本类型操作，更新通过 CAS 保证原子性，读写路径上不产生任何对象分配
+ * <p>
+ * 音量、静音与响铃模式的每次写入只有一次 CAS，版本号与状态打包在同一个 long 中；
+ * 音量范围、过期标记、输出设备切换等不在热路径上的写入前后分别递增 writeStarted / writeFinished。
+ * {@link #snapshot()} 读取两遍，槽位版本与写入计数都没有改变时即得到所有音量流在同一时刻的一致状态
+ *
+ * @author YMK
+ * @since 2025/11/24
+ */
+final class StreamStateTable {
+
+    /**
+     * 表容量
+     * <p>
+     * AudioManager.STREAM_* 是从 0 开始的稠密常量（包含隐藏的音量流），16 个槽位足够覆盖
+     */
+    static final int CAPACITY = 16;
+
+    /**
+     * 未知音量
+     */
+    static final int UNKNOWN = -1;
+
+    private static final long VOLUME_MASK = 0xFFFFL;
+    private static final long VOLUME_KNOWN = 1L << 16;
+    private static final long MUTE = 1L << 17;
+    private static final long MUTE_KNOWN = 1L << 18;
+    private static final long STATE_MASK = (1L << 32) - 1;
+    private static final long MODE_KNOWN = 1L << 31;
+    private static final int VERSION_SHIFT = 32;
+    private static final long RANGE_KNOWN = 1L << 32;
+    private static final int MIN_SHIFT = 16;
+
+    /**
+     * 状态槽位
+     */
+    private final AtomicLongArray slots = new AtomicLongArray(CAPACITY);
+
+    /**
+     * 音量范围槽位
+     */
+    private final AtomicLongArray ranges = new AtomicLongArray(CAPACITY);
+
+    /**
+     * 系统响铃模式，打包方式为 version(bit 32..63) | modeKnown(bit 31) | mode(bit 0..30)
+     */
+    private final AtomicLong ringMode = new AtomicLong();
+
+    /**
+     * 非热路径写入开始的次数
+     */
+    private final AtomicLong writeStarted = new AtomicLong();
+
+    /**
+     * 非热路径写入完成的次数
+     */
+    private final AtomicLong writeFinished = new AtomicLong();
+
+    /**
+     * 记录是否过期
+     * <p>
+     * 过期时读取音量、静音状态、响铃模式都返回未知，但记录本身保留，用于重新同步时比较差异
+     */
+    private volatile boolean stale;
+
+    /**
+     * streamType 是否在表的下标范围内
+     */
+    static boolean isValid(int streamType) {
+        return streamType >= 0 && streamType < CAPACITY;
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 音量
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 获取音量
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    int getVolume(int streamType) {
+        if (!isValid(streamType)) {
+            return UNKNOWN;
+        }
+        long slot = slots.get(streamType);
+        return stale || (slot & VOLUME_KNOWN) == 0 ? UNKNOWN : (int) (slot & VOLUME_MASK);
+    }
+
+    /**
+     * 获取音量记录，不受过期标记影响
+     * <p>
+     * 过期的记录是停止接收前最后一次确认的音量，只能作为初始值，之后需要重新同步校正
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    int getVolumeRecord(int streamType) {
+        if (!isValid(streamType)) {
+            return UNKNOWN;
+        }
+        long slot = slots.get(streamType);
+        return (slot & VOLUME_KNOWN) == 0 ? UNKNOWN : (int) (slot & VOLUME_MASK);
+    }
+
+    /**
+     * 是否记录了音量
+     */
+    boolean hasVolume(int streamType) {
+        return isValid(streamType) && !stale && (slots.get(streamType) & VOLUME_KNOWN) != 0;
+    }
+
+    /**
+     * 更新音量
+     *
+     * @return 值是否发生了改变
+     */
+    boolean setVolume(int streamType, int volume) {
+        return getAndSetVolume(streamType, volume) != volume;
+    }
+
+    /**
+     * 更新音量 并返回之前的音量
+     * <p>
+     * 值相同或参数不合法时不做任何修改，此时返回值等于 volume
+     *
+     * @return 之前的音量，没有记录时返回 {@link #UNKNOWN}
+     */
+    int getAndSetVolume(int streamType, int volume) {
+        if (!isValid(streamType) || volume < 0 || volume > VOLUME_MASK) {
+            return volume;
+        }
+        long state = VOLUME_KNOWN | volume;
+        while (true) {
+            long slot = slots.get(streamType);
+            if ((slot & (VOLUME_KNOWN | VOLUME_MASK)) == state) {
+                return volume;
+            }
+            long update = nextVersion(slot) | (slot & (MUTE | MUTE_KNOWN)) | state;
+            if (compareAndSet(streamType, slot, update)) {
+                return (slot & VOLUME_KNOWN) == 0 ? UNKNOWN : (int) (slot & VOLUME_MASK);
+            }
+        }
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 静音
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 是否静音
+     * <p>
+     * 没有记录时返回 false，调用前可通过 {@link #hasMute(int)} 判断
+     */
+    boolean isMute(int streamType) {
+        return isValid(streamType) && !stale && (slots.get(streamType) & MUTE) != 0;
+    }
+
+    /**
+     * 获取静音状态记录，不受过期标记影响，参考 {@link #getVolumeRecord(int)}
+     *
+     * @return 1 / 0，没有记录时返回 {@link #UNKNOWN}
+     */
+    int getMuteRecord(int streamType) {
+        if (!isValid(streamType)) {
+            return UNKNOWN;
+        }
+        long slot = slots.get(streamType);
+        return (slot & MUTE_KNOWN) == 0 ? UNKNOWN : (slot & MUTE) != 0 ? 1 : 0;
+    }
+
+    /**
+     * 是否记录了静音状态
+     */
+    boolean hasMute(int streamType) {
+        return isValid(streamType) && !stale && (slots.get(streamType) & MUTE_KNOWN) != 0;
+    }
+
+    /**
+     * 更新静音状态
+     *
+     * @return 值是否发生了改变
+     */
+    boolean setMute(int streamType, boolean isMute) {
+        return getAndSetMute(streamType, isMute) != (isMute ? 1 : 0);
+    }
+
+    /**
+     * 更新静音状态 并返回之前的状态
+     * <p>
+     * 值相同或参数不合法时不做任何修改，此时返回值等于新状态
+     *
+     * @return 之前的状态：1 静音，0 非静音，没有记录时返回 {@link #UNKNOWN}
+     */
+    int getAndSetMute(int streamType, boolean isMute) {
+        int value = isMute ? 1 : 0;
+        if (!isValid(streamType)) {
+            return value;
+        }
+        long state = MUTE_KNOWN | (isMute ? MUTE : 0L);
+        while (true) {
+            long slot = slots.get(streamType);
+            if ((slot & (MUTE_KNOWN | MUTE)) == state) {
+                return value;
+            }
+            long update = nextVersion(slot) | (slot & (VOLUME_KNOWN | VOLUME_MASK)) | state;
+            if (compareAndSet(streamType, slot, update)) {
+                return (slot & MUTE_KNOWN) == 0 ? UNKNOWN : ((slot & MUTE) != 0 ? 1 : 0);
+            }
+        }
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 音量范围
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 是否记录了音量范围
+     */
+    boolean hasRange(int streamType) {
+        return isValid(streamType) && (ranges.get(streamType) & RANGE_KNOWN) != 0;
+    }
+
+    /**
+     * 获取最小音量
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    int getMin(int streamType) {
+        if (!isValid(streamType)) {
+            return UNKNOWN;
+        }
+        long range = ranges.get(streamType);
+        return (range & RANGE_KNOWN) == 0 ? UNKNOWN : (int) ((range >>> MIN_SHIFT) & VOLUME_MASK);
+    }
+
+    /**
+     * 获取最大音量
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    int getMax(int streamType) {
+        if (!isValid(streamType)) {
+            return UNKNOWN;
+        }
+        long range = ranges.get(streamType);
+        return (range & RANGE_KNOWN) == 0 ? UNKNOWN : (int) (range & VOLUME_MASK);
+    }
+
+    /**
+     * 记录音量范围
+     */
+    void setRange(int streamType, int min, int max) {
+        if (!isValid(streamType) || min < 0 || max < min || max > VOLUME_MASK) {
+            return;
+        }
+        long range = RANGE_KNOWN | ((long) min << MIN_SHIFT) | max;
+        if (ranges.get(streamType) == range) {
+            return;
+        }
+        writeStarted.incrementAndGet();
+        ranges.set(streamType, range);
+        writeFinished.incrementAndGet();
+    }
+
+    /**
+     * 清空所有音量范围记录
+     */
+    void clearRanges() {
+        writeStarted.incrementAndGet();
+        for (int i = 0; i < CAPACITY; i++) {
+            ranges.set(i, 0L);
+        }
+        writeFinished.incrementAndGet();
+    }
+
+    /**
+     * 将音量限制在已记录的范围内
+     * <p>
+     * 没有记录范围时只保证不为负数，由系统完成最终的限制
+     */
+    int clamp(int streamType, int volume) {
+        long range = isValid(streamType) ? ranges.get(streamType) : 0L;
+        if ((range & RANGE_KNOWN) == 0) {
+            return Math.max(volume, 0);
+        }
+        int min = (int) ((range >>> MIN_SHIFT) & VOLUME_MASK);
+        int max = (int) (range & VOLUME_MASK);
+        return Math.min(Math.max(volume, min), max);
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 响铃模式
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 获取系统响铃模式
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    int getRingMode() {
+        return stale ? UNKNOWN : mode(ringMode.get());
+    }
+
+    /**
+     * 更新系统响铃模式
+     *
+     * @return 值是否发生了改变
+     */
+    boolean setRingMode(int mode) {
+        return getAndSetRingMode(mode) != mode;
+    }
+
+    /**
+     * 更新系统响铃模式 并返回之前的响铃模式
+     * <p>
+     * 值相同或参数不合法时不做任何修改，此时返回值等于 mode
+     *
+     * @return 之前的响铃模式，没有记录时返回 {@link #UNKNOWN}
+     */
+    int getAndSetRingMode(int mode) {
+        if (mode < 0 || mode >= MODE_KNOWN) {
+            return mode;
+        }
+        while (true) {
+            long slot = ringMode.get();
+            int previous = mode(slot);
+            if (previous == mode) {
+                return mode;
+            }
+            if (ringMode.compareAndSet(slot, nextVersion(slot) | MODE_KNOWN | mode)) {
+                return previous;
+            }
+        }
+    }
+
+    private static int mode(long slot) {
+        return (slot & MODE_KNOWN) == 0 ? UNKNOWN : (int) (slot & (MODE_KNOWN - 1));
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 版本
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 获取某个音量流的状态版本号，每次状态改变时递增
+     */
+    int version(int streamType) {
+        return isValid(streamType) ? (int) (slots.get(streamType) >>> VERSION_SHIFT) : 0;
+    }
+
+    /**
+     * 整张表的版本号，任意状态改变时递增
+     * <p>
+     * 由各槽位的版本号与非热路径的写入次数相加得到，写入路径上不需要额外的计数
+     */
+    long sequence() {
+        long sequence = writeFinished.get() + (ringMode.get() >>> VERSION_SHIFT);
+        for (int i = 0; i < CAPACITY; i++) {
+            sequence += slots.get(i) >>> VERSION_SHIFT;
+        }
+        return sequence;
+    }
+
+    /**
+     * 记录是否过期
+     */
+    boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * 标记记录过期或重新可信
+     * <p>
+     * 停止接收广播时标记过期，重新同步完成后恢复
+     */
+    void setStale(boolean stale) {
+        // 计入写入次数 使已发布的快照失效
+        writeStarted.incrementAndGet();
+        this.stale = stale;
+        writeFinished.incrementAndGet();
+    }
+
+    /**
+     * 清空所有记录
+     * <p>
+     * 版本号继续递增，保证清空前后的状态不会被误认为相同
+     */
+    void clear() {
+        writeStarted.incrementAndGet();
+        try {
+            for (int i = 0; i < CAPACITY; i++) {
+                while (true) {
+                    long slot = slots.get(i);
+                    if ((slot & STATE_MASK) == 0 || compareAndSet(i, slot, nextVersion(slot))) {
+                        break;
+                    }
+                }
+            }
+            while (true) {
+                long slot = ringMode.get();
+                if ((slot & MODE_KNOWN) == 0 || ringMode.compareAndSet(slot, nextVersion(slot))) {
+                    break;
+                }
+            }
+        } finally {
+            writeFinished.incrementAndGet();
+        }
+    }
+
+    /**
+     * 获取所有音量流的一致快照
+     * <p>
+     * 读取期间如果有写入发生则重试，读取本身不加锁
+     */
+    VolumeSnapshot snapshot() {
+        long[] raw = new long[CAPACITY];
+        int[] volumes = new int[CAPACITY];
+        int[] mins = new int[CAPACITY];
+        int[] maxs = new int[CAPACITY];
+        long muteKnown;
+        long mutes;
+        while (true) {
+            long finished = writeFinished.get();
+            long started = writeStarted.get();
+            if (started != finished) {
+                // 有非热路径写入正在进行
+                Thread.yield();
+                continue;
+            }
+            muteKnown = 0L;
+            mutes = 0L;
+            long version = finished;
+            boolean isStale = stale;
+            for (int i = 0; i < CAPACITY; i++) {
+                raw[i] = slots.get(i);
+                version += raw[i] >>> VERSION_SHIFT;
+                long slot = isStale ? 0L : raw[i];
+                volumes[i] = (slot & VOLUME_KNOWN) == 0 ? UNKNOWN : (int) (slot & VOLUME_MASK);
+                if ((slot & MUTE_KNOWN) != 0) {
+                    muteKnown |= 1L << i;
+                }
+                if ((slot & MUTE) != 0) {
+                    mutes |= 1L << i;
+                }
+                long range = ranges.get(i);
+                boolean rangeKnown = (range & RANGE_KNOWN) != 0;
+                mins[i] = rangeKnown ? (int) ((range >>> MIN_SHIFT) & VOLUME_MASK) : UNKNOWN;
+                maxs[i] = rangeKnown ? (int) (range & VOLUME_MASK) : UNKNOWN;
+            }
+            long modeSlot = ringMode.get();
+            version += modeSlot >>> VERSION_SHIFT;
+            int mode = isStale ? UNKNOWN : mode(modeSlot);
+            if (writeStarted.get() == started && unchanged(raw) && ringMode.get() == modeSlot) {
+                return new VolumeSnapshot(version, volumes, mins, maxs, muteKnown, mutes, mode);
+            }
+        }
+    }
+
+    /**
+     * 槽位自第一次读取后是否都没有改变，版本号保证相同的值也能区分先后两次写入
+     */
+    private boolean unchanged(long[] raw) {
+        for (int i = 0; i < CAPACITY; i++) {
+            if (slots.get(i) != raw[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 输出设备
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 某个输出设备上的音量与范围
+     * <p>
+     * 系统为每个输出设备单独保存音量，静音状态与响铃模式与设备无关
+     */
+    static final class DeviceState {
+
+        private final long[] volumes = new long[CAPACITY];
+
+        private final long[] ranges = new long[CAPACITY];
+    }
+
+    /**
+     * 导出当前的音量与范围
+     */
+    DeviceState exportDevice() {
+        DeviceState state = new DeviceState();
+        for (int i = 0; i < CAPACITY; i++) {
+            state.volumes[i] = slots.get(i) & (VOLUME_KNOWN | VOLUME_MASK);
+            state.ranges[i] = ranges.get(i);
+        }
+        return state;
+    }
+
+    /**
+     * 一次切换到另一个输出设备的音量与范围
+     * <p>
+     * 整个切换计为一次写入，快照要么是切换前的状态，要么是切换后的状态
+     *
+     * @param previous 输出切换前的音量，没有记录时为 {@link #UNKNOWN}
+     */
+    void restoreDevice(DeviceState state, int[] previous) {
+        writeStarted.incrementAndGet();
+        try {
+            for (int i = 0; i < CAPACITY; i++) {
+                long volume = state.volumes[i];
+                while (true) {
+                    long slot = slots.get(i);
+                    previous[i] = (slot & VOLUME_KNOWN) == 0 ? UNKNOWN : (int) (slot & VOLUME_MASK);
+                    if ((slot & (VOLUME_KNOWN | VOLUME_MASK)) == volume) {
+                        break;
+                    }
+                    long update = nextVersion(slot) | (slot & (MUTE | MUTE_KNOWN)) | volume;
+                    if (slots.compareAndSet(i, slot, update)) {
+                        break;
+                    }
+                }
+                ranges.set(i, state.ranges[i]);
+            }
+        } finally {
+            writeFinished.incrementAndGet();
+        }
+    }
+
+    /**
+     * 更新槽位
+     * <p>
+     * 版本号打包在槽位高位，一次 CAS 即可被 {@link #snapshot()} 与 {@link #sequence()} 发现
+     */
+    private boolean compareAndSet(int index, long expect, long update) {
+        return slots.compareAndSet(index, expect, update);
+    }
+
+    private static long nextVersion(long slot) {
+        return ((slot >>> VERSION_SHIFT) + 1) << VERSION_SHIFT;
+    }
+}
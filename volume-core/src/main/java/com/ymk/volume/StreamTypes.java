@@ -0,0 +1,82 @@
+package com.ymk.volume;
+
+/**
+ * 音量流常量
+ * <p>
+ * 与 android.media.AudioManager 中的取值相同，供不依赖 Android 平台的代码使用，
+ * 界面也可以通过这里使用 AudioManager 中隐藏的常量
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+public final class StreamTypes {
+
+    public static final int STREAM_VOICE_CALL = 0;
+    public static final int STREAM_SYSTEM = 1;
+    public static final int STREAM_RING = 2;
+    public static final int STREAM_MUSIC = 3;
+    public static final int STREAM_ALARM = 4;
+    public static final int STREAM_NOTIFICATION = 5;
+    /**
+     * 蓝牙通话音量，AudioManager 中为隐藏常量
+     */
+    public static final int STREAM_BLUETOOTH_SCO = 6;
+    public static final int STREAM_DTMF = 8;
+    public static final int STREAM_ACCESSIBILITY = 10;
+    public static final int USE_DEFAULT_STREAM_TYPE = Integer.MIN_VALUE;
+
+    private StreamTypes() {
+        throw new UnsupportedOperationException("u can't initialize me~");
+    }
+
+    /**
+     * 是否为 AudioManager 公开的音量流
+     * <p>
+     * getStreamMinVolume 等接口只接受公开的音量流，隐藏的音量流会抛出 IllegalArgumentException
+     */
+    static boolean isPublic(final int streamType) {
+        switch (streamType) {
+            case STREAM_VOICE_CALL:
+            case STREAM_SYSTEM:
+            case STREAM_RING:
+            case STREAM_MUSIC:
+            case STREAM_ALARM:
+            case STREAM_NOTIFICATION:
+            case STREAM_DTMF:
+            case STREAM_ACCESSIBILITY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 获取 streamType 的名称
+     */
+    static String name(final int streamType) {
+        switch (streamType) {
+            case STREAM_MUSIC:
+                return "STREAM_MUSIC";
+            case STREAM_ALARM:
+                return "STREAM_ALARM";
+            case STREAM_ACCESSIBILITY:
+                return "STREAM_ACCESSIBILITY";
+            case STREAM_SYSTEM:
+                return "STREAM_SYSTEM";
+            case STREAM_DTMF:
+                return "STREAM_DTMF";
+            case STREAM_NOTIFICATION:
+                return "STREAM_NOTIFICATION";
+            case STREAM_RING:
+                return "STREAM_RING";
+            case STREAM_VOICE_CALL:
+                return "STREAM_VOICE_CALL";
+            case STREAM_BLUETOOTH_SCO:
+                return "STREAM_BLUETOOTH_SCO";
+            case USE_DEFAULT_STREAM_TYPE:
+                return "USE_DEFAULT_STREAM_TYPE";
+            default:
+                return String.valueOf(streamType);
+        }
+    }
+}
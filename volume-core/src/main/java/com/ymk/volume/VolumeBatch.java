@@ -0,0 +1,143 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 批量修改
+ * <p>
+ * 一次修改多个音量流的音量、静音状态以及响铃模式，通过 {@link Volume#setVolumes(VolumeBatch)} 提交。
+ * 同一音量流多次设置时以最后一次为准
+ *
+ * @author YMK
+ * @since 2025/12/02
+ */
+public final class VolumeBatch {
+
+    private static final int NONE = StreamStateTable.UNKNOWN;
+
+    private final int[] volumes = new int[StreamStateTable.CAPACITY];
+
+    private final int[] mutes = new int[StreamStateTable.CAPACITY];
+
+    private int ringMode = NONE;
+
+    private int flags;
+
+    private boolean rollbackOnFailure = true;
+
+    public VolumeBatch() {
+        Arrays.fill(volumes, NONE);
+        Arrays.fill(mutes, NONE);
+    }
+
+    /**
+     * 设置音量
+     */
+    @NonNull
+    public VolumeBatch setVolume(int streamType, int volume) {
+        checkStreamType(streamType);
+        volumes[streamType] = Math.max(0, volume);
+        return this;
+    }
+
+    /**
+     * 设置静音状态
+     */
+    @NonNull
+    public VolumeBatch setMute(int streamType, boolean mute) {
+        checkStreamType(streamType);
+        mutes[streamType] = mute ? 1 : 0;
+        return this;
+    }
+
+    /**
+     * 设置响铃模式
+     * <p>
+     * 需要 {@link android.Manifest.permission#ACCESS_NOTIFICATION_POLICY} 权限
+     */
+    @NonNull
+    public VolumeBatch setRingMode(int ringMode) {
+        this.ringMode = ringMode;
+        return this;
+    }
+
+    /**
+     * 写入音量时使用的 flags，参考 {@link Volume#setVolume(int, int, int)}
+     */
+    @NonNull
+    public VolumeBatch setFlags(int flags) {
+        this.flags = flags;
+        return this;
+    }
+
+    /**
+     * 部分修改失败时是否撤销已经生效的修改，默认为 true
+     */
+    @NonNull
+    public VolumeBatch setRollbackOnFailure(boolean rollbackOnFailure) {
+        this.rollbackOnFailure = rollbackOnFailure;
+        return this;
+    }
+
+    /**
+     * 是否没有任何修改
+     */
+    public boolean isEmpty() {
+        if (NONE != ringMode) {
+            return false;
+        }
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            if (NONE != volumes[i] || NONE != mutes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 提交时复制一份，之后对原对象的修改不影响正在执行的批量修改
+     */
+    VolumeBatch copy() {
+        VolumeBatch batch = new VolumeBatch();
+        System.arraycopy(volumes, 0, batch.volumes, 0, volumes.length);
+        System.arraycopy(mutes, 0, batch.mutes, 0, mutes.length);
+        batch.ringMode = ringMode;
+        batch.flags = flags;
+        batch.rollbackOnFailure = rollbackOnFailure;
+        return batch;
+    }
+
+    /**
+     * 目标音量，没有设置时返回 {@link StreamStateTable#UNKNOWN}
+     */
+    int getVolume(int streamType) {
+        return volumes[streamType];
+    }
+
+    /**
+     * 目标静音状态，1 静音、0 非静音，没有设置时返回 {@link StreamStateTable#UNKNOWN}
+     */
+    int getMute(int streamType) {
+        return mutes[streamType];
+    }
+
+    int getRingMode() {
+        return ringMode;
+    }
+
+    int getFlags() {
+        return flags;
+    }
+
+    boolean isRollbackOnFailure() {
+        return rollbackOnFailure;
+    }
+
+    private static void checkStreamType(int streamType) {
+        if (!StreamStateTable.isValid(streamType)) {
+            throw new IllegalArgumentException("unsupported streamType: " + streamType);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 批量修改的结果
+ *
+ * @author YMK
+ * @since 2025/12/02
+ */
+public final class VolumeBatchResult {
+
+    private final int appliedCount;
+
+    private final int elidedCount;
+
+    private final int[] failedStreams;
+
+    private final int[] muteFailedStreams;
+
+    private final boolean ringModeFailed;
+
+    private final boolean rolledBack;
+
+    private final boolean rollbackFailed;
+
+    VolumeBatchResult(int appliedCount, int elidedCount, int[] failedStreams, int[] muteFailedStreams,
+                      boolean ringModeFailed, boolean rolledBack, boolean rollbackFailed) {
+        this.appliedCount = appliedCount;
+        this.elidedCount = elidedCount;
+        this.failedStreams = failedStreams;
+        this.muteFailedStreams = muteFailedStreams;
+        this.ringModeFailed = ringModeFailed;
+        this.rolledBack = rolledBack;
+        this.rollbackFailed = rollbackFailed;
+    }
+
+    /**
+     * 是否全部修改成功
+     */
+    public boolean isSuccess() {
+        return 0 == failedStreams.length && 0 == muteFailedStreams.length && !ringModeFailed;
+    }
+
+    /**
+     * 真正写入系统的修改数量，撤销后仍为撤销前的数量
+     */
+    public int getAppliedCount() {
+        return appliedCount;
+    }
+
+    /**
+     * 与当前状态相同而被跳过的修改数量
+     */
+    public int getElidedCount() {
+        return elidedCount;
+    }
+
+    /**
+     * 修改音量失败的音量流
+     */
+    @NonNull
+    public int[] getFailedStreams() {
+        return failedStreams.clone();
+    }
+
+    /**
+     * 修改静音状态失败的音量流
+     */
+    @NonNull
+    public int[] getMuteFailedStreams() {
+        return muteFailedStreams.clone();
+    }
+
+    /**
+     * 修改响铃模式是否失败
+     */
+    public boolean isRingModeFailed() {
+        return ringModeFailed;
+    }
+
+    /**
+     * 已经生效的修改是否全部被撤销
+     */
+    public boolean isRolledBack() {
+        return rolledBack;
+    }
+
+    /**
+     * 撤销时是否有修改没能恢复，此时系统状态介于修改前后之间，以状态监听为准
+     */
+    public boolean isRollbackFailed() {
+        return rollbackFailed;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VolumeBatchResult{" +
+                "applied=" + appliedCount +
+                ", elided=" + elidedCount +
+                ", failedStreams=" + Arrays.toString(failedStreams) +
+                ", muteFailedStreams=" + Arrays.toString(muteFailedStreams) +
+                ", ringModeFailed=" + ringModeFailed +
+                ", rolledBack=" + rolledBack +
+                ", rollbackFailed=" + rollbackFailed +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 状态改变事件
+ * <p>
+ * 只有状态真正改变时才会产生，重复的广播不会产生事件
+ *
+ * @author YMK
+ * @since 2025/11/28
+ */
+public final class VolumeChangeEvent {
+
+    /**
+     * 事件类型：音量改变
+     */
+    public static final int TYPE_VOLUME = 0;
+
+    /**
+     * 事件类型：静音状态改变，新旧值为 1（静音）或 0（非静音）
+     */
+    public static final int TYPE_MUTE = 1;
+
+    /**
+     * 事件类型：响铃模式改变，此时 streamType 为 {@link #NO_STREAM}
+     */
+    public static final int TYPE_RING_MODE = 2;
+
+    /**
+     * 事件来源：系统广播
+     */
+    public static final int SOURCE_BROADCAST = 0;
+
+    /**
+     * 事件来源：库主动查询系统状态（预加载、输出设备改变、重新注册广播后的同步）
+     * <p>
+     * 同一次同步产生的事件通过 {@link OnVolumeChangeListener#onVolumeChanges(java.util.List)} 一次回调
+     */
+    public static final int SOURCE_SYNC = 1;
+
+    /**
+     * 事件来源：批量修改，参考 {@link Volume#setVolumes(VolumeBatch)}
+     */
+    public static final int SOURCE_BATCH = 2;
+
+    /**
+     * 与音量流无关的事件
+     */
+    public static final int NO_STREAM = -1;
+
+    /**
+     * 旧值未知
+     */
+    public static final int UNKNOWN = StreamStateTable.UNKNOWN;
+
+    private final int type;
+
+    private final int streamType;
+
+    private final int oldValue;
+
+    private final int newValue;
+
+    private final int source;
+
+    VolumeChangeEvent(int type, int streamType, int oldValue, int newValue, int source) {
+        this.type = type;
+        this.streamType = streamType;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.source = source;
+    }
+
+    /**
+     * 事件类型
+     * <p>
+     * {@link #TYPE_VOLUME}、{@link #TYPE_MUTE}、{@link #TYPE_RING_MODE}
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * 改变的音量流
+     */
+    public int getStreamType() {
+        return streamType;
+    }
+
+    /**
+     * 改变之前的值，未知时为 {@link #UNKNOWN}
+     */
+    public int getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * 改变之后的值
+     */
+    public int getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * 改变量，旧值未知时为 0
+     */
+    public int getDelta() {
+        return UNKNOWN == oldValue ? 0 : newValue - oldValue;
+    }
+
+    /**
+     * 事件来源
+     * <p>
+     * {@link #SOURCE_BROADCAST}、{@link #SOURCE_SYNC}、{@link #SOURCE_BATCH}
+     */
+    public int getSource() {
+        return source;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VolumeChangeEvent{" +
+                "type=" + type +
+                ", streamType=" + StreamTypes.name(streamType) +
+                ", oldValue=" + oldValue +
+                ", newValue=" + newValue +
+                ", source=" + source +
+                '}';
+    }
+}
@@ -0,0 +1,190 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 与平台无关的音量核心
+ * <p>
+ * 持有状态表、写入管线、渐变与基本类型监听，负责过滤重复的状态改变并分发。
+ * 系统状态通过 {@link AudioBackend} 读写，LiveData 等平台相关的通知通过 {@link Publisher} 完成
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+final class VolumeCore {
+
+    /**
+     * 状态改变后的平台通知
+     * <p>
+     * 只在状态真正改变时调用，调用线程为状态更新的线程
+     */
+    interface Publisher {
+
+        void onVolume(int streamType, int value);
+
+        void onMute(int streamType, boolean isMute);
+
+        void onRingMode(int ringMode);
+    }
+
+    /**
+     * 不做任何通知
+     */
+    static final Publisher NO_PUBLISHER = new Publisher() {
+        @Override
+        public void onVolume(int streamType, int value) {
+        }
+
+        @Override
+        public void onMute(int streamType, boolean isMute) {
+        }
+
+        @Override
+        public void onRingMode(int ringMode) {
+        }
+    };
+
+    private final AudioBackend backend;
+
+    private final Publisher publisher;
+
+    private final StreamStateTable stateTable = new StreamStateTable();
+
+    private final ListenerRegistry listenerRegistry = new ListenerRegistry();
+
+    private final VolumeWorker worker;
+
+    private final VolumeWriter volumeWriter;
+
+    private final RampEngine rampEngine;
+
+    VolumeCore(@NonNull AudioBackend backend, @NonNull Publisher publisher) {
+        this(backend, publisher, new VolumeWorker());
+    }
+
+    VolumeCore(@NonNull AudioBackend backend, @NonNull Publisher publisher, @NonNull VolumeWorker worker) {
+        this.backend = backend;
+        this.publisher = publisher;
+        this.worker = worker;
+        this.volumeWriter = new VolumeWriter(stateTable, worker, new VolumeWriter.Sink() {
+            @Override
+            public boolean setVolume(int streamType, int volume, int flags) {
+                return backend.setVolume(streamType, volume, flags);
+            }
+
+            @Override
+            public int getMinVolume(int streamType) {
+                return backend.getMinVolume(streamType);
+            }
+
+            @Override
+            public int getMaxVolume(int streamType) {
+                return backend.getMaxVolume(streamType);
+            }
+        });
+        this.rampEngine = new RampEngine(worker, new RampEngine.Target() {
+            @Override
+            public int getVolume(int streamType) {
+                volumeWriter.drainNow(streamType);
+                int volume = volumeWriter.knownVolume(streamType);
+                if (StreamStateTable.UNKNOWN == volume) {
+                    volume = backend.getVolume(streamType);
+                }
+                return volume;
+            }
+
+            @Override
+            public int clamp(int streamType, int volume) {
+                loadRange(streamType);
+                return stateTable.clamp(streamType, volume);
+            }
+
+            @Override
+            public void setVolume(int streamType, int volume, int flags) {
+                volumeWriter.writeNow(streamType, volume, flags);
+            }
+        });
+    }
+
+    AudioBackend getBackend() {
+        return backend;
+    }
+
+    StreamStateTable getStateTable() {
+        return stateTable;
+    }
+
+    ListenerRegistry getListenerRegistry() {
+        return listenerRegistry;
+    }
+
+    VolumeWorker getWorker() {
+        return worker;
+    }
+
+    VolumeWriter getVolumeWriter() {
+        return volumeWriter;
+    }
+
+    RampEngine getRampEngine() {
+        return rampEngine;
+    }
+
+    /**
+     * 加载音量范围，已经加载过时直接返回
+     */
+    void loadRange(int streamType) {
+        if (stateTable.hasRange(streamType)) {
+            return;
+        }
+        stateTable.setRange(streamType, backend.getMinVolume(streamType), backend.getMaxVolume(streamType));
+    }
+
+    /**
+     * 更新状态表中的音量，并通知平台与基本类型监听
+     *
+     * @return 旧值，没有改变时返回 value
+     */
+    int publishVolume(int streamType, int value) {
+        volumeWriter.onSystemVolume(streamType, value);
+        rampEngine.onSystemVolume(streamType, value);
+        int oldValue = stateTable.getAndSetVolume(streamType, value);
+        if (oldValue == value) {
+            return value;
+        }
+        publisher.onVolume(streamType, value);
+        listenerRegistry.dispatchVolume(streamType, value);
+        return oldValue;
+    }
+
+    /**
+     * 更新状态表中的静音状态，并通知平台与基本类型监听
+     *
+     * @return 旧值 1 / 0 / {@link StreamStateTable#UNKNOWN}，没有改变时返回新值
+     */
+    int publishMute(int streamType, boolean isMute) {
+        int value = isMute ? 1 : 0;
+        int oldValue = stateTable.getAndSetMute(streamType, isMute);
+        if (oldValue == value) {
+            return value;
+        }
+        publisher.onMute(streamType, isMute);
+        listenerRegistry.dispatchMute(streamType, isMute);
+        return oldValue;
+    }
+
+    /**
+     * 更新状态表中的响铃模式，并通知平台与基本类型监听
+     *
+     * @return 旧值，没有改变时返回 ringMode
+     */
+    int publishRingMode(int ringMode) {
+        int oldValue = stateTable.getAndSetRingMode(ringMode);
+        if (oldValue == ringMode) {
+            return ringMode;
+        }
+        publisher.onRingMode(ringMode);
+        listenerRegistry.dispatchRingMode(ringMode);
+        return oldValue;
+    }
+}
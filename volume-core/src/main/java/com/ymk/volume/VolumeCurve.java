@@ -0,0 +1,61 @@
+package com.ymk.volume;
+
+/**
+ * 百分比音量曲线
+ * <p>
+ * 描述百分比与音量位置（音量在 [min, max] 中的相对位置）之间的映射，必须单调递增，
+ * 并满足 f(0) = 0、f(1) = 1。通过 {@link Volume#setVolumeCurve(int, VolumeCurve)} 设置
+ * <p>
+ * 曲线只在构建映射表时使用，百分比与音量的转换本身只是查表
+ *
+ * @author YMK
+ * @since 2025/11/30
+ */
+public interface VolumeCurve {
+
+    /**
+     * 线性曲线：百分比与音量等比例对应
+     */
+    VolumeCurve LINEAR = new VolumeCurve() {
+        @Override
+        public float toPosition(float percent) {
+            return percent;
+        }
+
+        @Override
+        public float toPercent(float position) {
+            return position;
+        }
+    };
+
+    /**
+     * 对数曲线：低百分比区间分配更多的音量档位，更符合听感
+     */
+    VolumeCurve LOGARITHMIC = new VolumeCurve() {
+        @Override
+        public float toPosition(float percent) {
+            return (float) Math.log10(1 + 9 * percent);
+        }
+
+        @Override
+        public float toPercent(float position) {
+            return (float) ((Math.pow(10, position) - 1) / 9);
+        }
+    };
+
+    /**
+     * 百分比转换为音量位置
+     *
+     * @param percent 百分比，范围 [0, 1]
+     * @return 音量位置，范围 [0, 1]
+     */
+    float toPosition(float percent);
+
+    /**
+     * 音量位置转换为百分比
+     *
+     * @param position 音量位置，范围 [0, 1]
+     * @return 百分比，范围 [0, 1]
+     */
+    float toPercent(float position);
+}
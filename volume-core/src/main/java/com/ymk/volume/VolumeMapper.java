@@ -0,0 +1,203 @@
+package com.ymk.volume;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 百分比、分贝与音量之间的映射
+ * <p>
+ * 每个音量流预先构建查找表，转换时只做数组下标访问：
+ * <ul>
+ * <li>百分比表：由音量范围和 {@link VolumeCurve} 构建，范围或曲线改变时重建</li>
+ * <li>分贝表：由 AudioManager.getStreamVolumeDb 构建，输出设备或范围改变时重建</li>
+ * </ul>
+ *
+ * @author YMK
+ * @since 2025/11/30
+ */
+final class VolumeMapper {
+
+    /**
+     * 百分比最大值
+     */
+    static final int MAX_PERCENT = 100;
+
+    /**
+     * 查询某个音量档位的分贝值
+     */
+    interface DbSource {
+
+        /**
+         * 查询分贝值
+         */
+        float getVolumeDb(int streamType, int index, int deviceType);
+    }
+
+    /**
+     * 百分比查找表
+     */
+    static final class PercentTable {
+
+        final int min;
+
+        final int max;
+
+        final VolumeCurve curve;
+
+        /**
+         * [percent] = index
+         */
+        private final int[] percentToIndex = new int[MAX_PERCENT + 1];
+
+        /**
+         * [index] = percent
+         */
+        private final int[] indexToPercent;
+
+        PercentTable(int min, int max, VolumeCurve curve) {
+            this.min = min;
+            this.max = max;
+            this.curve = curve;
+            this.indexToPercent = new int[max + 1];
+
+            int span = max - min;
+            for (int percent = 0; percent <= MAX_PERCENT; percent++) {
+                float position = clamp01(curve.toPosition((float) percent / MAX_PERCENT));
+                percentToIndex[percent] = min + Math.round(position * span);
+            }
+            for (int index = min; index <= max && span > 0; index++) {
+                float percent = clamp01(curve.toPercent((float) (index - min) / span));
+                indexToPercent[index] = Math.round(percent * MAX_PERCENT);
+            }
+        }
+
+        int toIndex(int percent) {
+            return percentToIndex[Math.max(0, Math.min(percent, MAX_PERCENT))];
+        }
+
+        int toPercent(int index) {
+            return indexToPercent[Math.max(0, Math.min(index, max))];
+        }
+    }
+
+    /**
+     * 分贝查找表
+     */
+    static final class DbTable {
+
+        final int min;
+
+        final int max;
+
+        final int deviceType;
+
+        /**
+         * [index] = dB
+         */
+        private final float[] indexToDb;
+
+        DbTable(int streamType, int min, int max, int deviceType, DbSource source) {
+            this.min = min;
+            this.max = max;
+            this.deviceType = deviceType;
+            this.indexToDb = new float[max + 1];
+            for (int index = 0; index <= max; index++) {
+                indexToDb[index] = index < min ? Float.NEGATIVE_INFINITY : source.getVolumeDb(streamType, index, deviceType);
+            }
+        }
+
+        float toDb(int index) {
+            return indexToDb[Math.max(0, Math.min(index, max))];
+        }
+
+        /**
+         * 分贝值不超过 db 的最大音量
+         */
+        int toIndex(float db) {
+            int low = min;
+            int high = max;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (indexToDb[mid] <= db) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final AtomicReferenceArray<VolumeCurve> curves = new AtomicReferenceArray<>(StreamStateTable.CAPACITY);
+
+    private final AtomicReferenceArray<PercentTable> percentTables = new AtomicReferenceArray<>(StreamStateTable.CAPACITY);
+
+    private final AtomicReferenceArray<DbTable> dbTables = new AtomicReferenceArray<>(StreamStateTable.CAPACITY);
+
+    /**
+     * 设置音量曲线
+     */
+    void setCurve(int streamType, VolumeCurve curve) {
+        curves.set(streamType, curve);
+    }
+
+    /**
+     * 获取音量曲线
+     */
+    VolumeCurve getCurve(int streamType) {
+        VolumeCurve curve = curves.get(streamType);
+        return null == curve ? VolumeCurve.LINEAR : curve;
+    }
+
+    /**
+     * 获取百分比查找表，范围或曲线改变时重建
+     */
+    PercentTable percentTable(int streamType, int min, int max) {
+        VolumeCurve curve = getCurve(streamType);
+        PercentTable table = percentTables.get(streamType);
+        if (null == table || table.min != min || table.max != max || table.curve != curve) {
+            table = new PercentTable(min, max, curve);
+            percentTables.set(streamType, table);
+        }
+        return table;
+    }
+
+    /**
+     * 获取已经构建的分贝查找表
+     *
+     * @return 没有构建或已失效时返回 null
+     */
+    DbTable dbTable(int streamType, int min, int max) {
+        DbTable table = dbTables.get(streamType);
+        if (null == table || table.min != min || table.max != max) {
+            return null;
+        }
+        return table;
+    }
+
+    /**
+     * 构建分贝查找表
+     * <p>
+     * 会调用 {@link DbSource}，在调用方线程执行；并发构建时以最后一次为准，结果相同
+     */
+    DbTable buildDbTable(int streamType, int min, int max, int deviceType, DbSource source) {
+        DbTable table = dbTables.get(streamType);
+        if (null == table || table.min != min || table.max != max || table.deviceType != deviceType) {
+            table = new DbTable(streamType, min, max, deviceType, source);
+            dbTables.set(streamType, table);
+        }
+        return table;
+    }
+
+    /**
+     * 输出设备改变 清空分贝查找表
+     */
+    void invalidateDb() {
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            dbTables.set(i, null);
+        }
+    }
+
+    private static float clamp01(float value) {
+        return Math.max(0f, Math.min(value, 1f));
+    }
+}
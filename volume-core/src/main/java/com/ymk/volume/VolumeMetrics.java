@@ -0,0 +1,221 @@
+package com.ymk.volume;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 音量库运行指标
+ * <p>
+ * 计数器与延迟直方图都基于预先分配的原子数组，记录时不分配对象、不加锁，可以在正式版本中常开。
+ * 通过 {@code Volume#getMetrics()} 导出
+ *
+ * @author YMK
+ * @since 2025/12/08
+ */
+final class VolumeMetrics {
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 计数器
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    static final int BROADCAST_VOLUME = 0;
+    static final int BROADCAST_MUTE = 1;
+    static final int BROADCAST_RING_MODE = 2;
+    static final int WRITE_SUBMITTED = 3;
+    static final int WRITE_COALESCED = 4;
+    static final int WRITE_ELIDED = 5;
+    static final int WRITE_COMMITTED = 6;
+    static final int POST_VALUE = 7;
+    static final int POST_VALUE_DROPPED = 8;
+    static final int FRAME_COALESCED = 9;
+
+    static final String[] COUNTER_NAMES = {
+            "broadcast.volume",
+            "broadcast.mute",
+            "broadcast.ring_mode",
+            "write.submitted",
+            "write.coalesced",
+            "write.elided",
+            "write.committed",
+            "post_value",
+            "post_value.dropped",
+            "frame.coalesced",
+    };
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 直方图
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    static final int BINDER_GET_VOLUME = 0;
+    static final int BINDER_SET_VOLUME = 1;
+    static final int BINDER_ADJUST_VOLUME = 2;
+    static final int BINDER_GET_MAX_VOLUME = 3;
+    static final int BINDER_GET_MIN_VOLUME = 4;
+    static final int BINDER_GET_RING_MODE = 5;
+    static final int BINDER_SET_RING_MODE = 6;
+    static final int BINDER_IS_MUTE = 7;
+    static final int BINDER_SET_MUTE = 8;
+    static final int BINDER_GET_DEVICES = 9;
+    static final int BINDER_GET_VOLUME_DB = 10;
+    static final int BROADCAST_TO_DISPATCH = 11;
+
+    static final String[] HISTOGRAM_NAMES = {
+            "binder.get_volume",
+            "binder.set_volume",
+            "binder.adjust_volume",
+            "binder.get_max_volume",
+            "binder.get_min_volume",
+            "binder.get_ring_mode",
+            "binder.set_ring_mode",
+            "binder.is_mute",
+            "binder.set_mute",
+            "binder.get_devices",
+            "binder.get_volume_db",
+            "broadcast_to_dispatch",
+    };
+
+    /**
+     * 直方图桶数量，第 i 个桶记录 [2^(i-1), 2^i) 微秒，最后一个桶记录更大的值
+     */
+    static final int BUCKETS = 32;
+
+    private static volatile boolean enabled = true;
+
+    private static final AtomicLongArray counters = new AtomicLongArray(COUNTER_NAMES.length);
+
+    private static final AtomicLongArray buckets = new AtomicLongArray(HISTOGRAM_NAMES.length * BUCKETS);
+
+    private static final AtomicLongArray totals = new AtomicLongArray(HISTOGRAM_NAMES.length);
+
+    private static final AtomicLongArray maxima = new AtomicLongArray(HISTOGRAM_NAMES.length);
+
+    /**
+     * 各音量流最后一次收到改变的时间，分发后清零
+     */
+    private static final AtomicLongArray receivedAt = new AtomicLongArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 导出次数
+     */
+    private static final AtomicLong exports = new AtomicLong();
+
+    private VolumeMetrics() {
+        throw new UnsupportedOperationException("u can't initialize me~");
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    static void setEnabled(boolean enabled) {
+        VolumeMetrics.enabled = enabled;
+    }
+
+    /**
+     * 计数
+     */
+    static void count(int counter) {
+        if (enabled) {
+            counters.incrementAndGet(counter);
+        }
+    }
+
+    /**
+     * 开始计时
+     *
+     * @return 关闭时返回 0
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 结束计时并记录到直方图
+     */
+    static void stop(int histogram, long start) {
+        if (0L != start) {
+            record(histogram, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 记录一次延迟
+     */
+    static void record(int histogram, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        long micros = Math.max(0L, nanos / 1_000L);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(histogram * BUCKETS + bucket);
+        totals.addAndGet(histogram, nanos);
+        long max;
+        do {
+            max = maxima.get(histogram);
+        } while (nanos > max && !maxima.compareAndSet(histogram, max, nanos));
+    }
+
+    /**
+     * 收到某个音量流的改变
+     */
+    static void onReceived(int streamType) {
+        if (enabled && StreamStateTable.isValid(streamType)) {
+            receivedAt.set(streamType, System.nanoTime());
+        }
+    }
+
+    /**
+     * 某个音量流的改变已经分发到观察者
+     */
+    static void onDispatched(int streamType) {
+        if (!enabled || !StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        long received = receivedAt.getAndSet(streamType, 0L);
+        if (0L != received) {
+            record(BROADCAST_TO_DISPATCH, System.nanoTime() - received);
+        }
+    }
+
+    /**
+     * 导出当前指标
+     */
+    static VolumeMetricsSnapshot snapshot() {
+        long[] counterValues = new long[COUNTER_NAMES.length];
+        for (int i = 0; i < counterValues.length; i++) {
+            counterValues[i] = counters.get(i);
+        }
+        VolumeMetricsSnapshot.Histogram[] histograms = new VolumeMetricsSnapshot.Histogram[HISTOGRAM_NAMES.length];
+        for (int i = 0; i < histograms.length; i++) {
+            long[] values = new long[BUCKETS];
+            long count = 0L;
+            for (int b = 0; b < BUCKETS; b++) {
+                values[b] = buckets.get(i * BUCKETS + b);
+                count += values[b];
+            }
+            histograms[i] = new VolumeMetricsSnapshot.Histogram(
+                    HISTOGRAM_NAMES[i], count, totals.get(i), maxima.get(i), values);
+        }
+        return new VolumeMetricsSnapshot(exports.incrementAndGet(), COUNTER_NAMES, counterValues, histograms);
+    }
+
+    /**
+     * 清空所有指标
+     */
+    static void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0L);
+        }
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0L);
+        }
+        for (int i = 0; i < totals.length(); i++) {
+            totals.set(i, 0L);
+            maxima.set(i, 0L);
+        }
+        // 丢弃重置前收到的广播 否则会在新的统计窗口中记录一个很大的耗时
+        for (int i = 0; i < receivedAt.length(); i++) {
+            receivedAt.set(i, 0L);
+        }
+    }
+}
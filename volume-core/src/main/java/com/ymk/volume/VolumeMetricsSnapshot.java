@@ -0,0 +1,172 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 音量库运行指标快照
+ * <p>
+ * 通过 {@code Volume#getMetrics()} 获取，不可变对象。
+ * 计数器与直方图都是从启动（或 {@code Volume#resetMetrics()}）开始的累计值，
+ * 上报时可以与上一次的快照相减得到区间内的值
+ *
+ * @author YMK
+ * @since 2025/12/08
+ */
+public final class VolumeMetricsSnapshot {
+
+    private final long sequence;
+
+    private final String[] counterNames;
+
+    private final long[] counters;
+
+    private final Histogram[] histograms;
+
+    VolumeMetricsSnapshot(long sequence, String[] counterNames, long[] counters, Histogram[] histograms) {
+        this.sequence = sequence;
+        this.counterNames = counterNames;
+        this.counters = counters;
+        this.histograms = histograms;
+    }
+
+    /**
+     * 快照序号，每次导出递增
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * 获取计数器
+     *
+     * @param name 例如 broadcast.volume、write.coalesced、post_value.dropped
+     * @return 不存在时返回 0
+     */
+    public long getCounter(@NonNull String name) {
+        for (int i = 0; i < counterNames.length; i++) {
+            if (counterNames[i].equals(name)) {
+                return counters[i];
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * 获取直方图
+     *
+     * @param name 例如 binder.set_volume、broadcast_to_dispatch
+     * @return 不存在时返回 null
+     */
+    public Histogram getHistogram(@NonNull String name) {
+        for (Histogram histogram : histograms) {
+            if (histogram.name.equals(name)) {
+                return histogram;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 导出为扁平的键值对，便于上报
+     * <p>
+     * 直方图导出 count、mean_us、p50_us、p90_us、p99_us、max_us
+     */
+    @NonNull
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < counterNames.length; i++) {
+            map.put(counterNames[i], counters[i]);
+        }
+        for (Histogram histogram : histograms) {
+            String prefix = histogram.name + ".";
+            map.put(prefix + "count", histogram.count);
+            map.put(prefix + "mean_us", histogram.getMeanMicros());
+            map.put(prefix + "p50_us", histogram.getPercentileMicros(50));
+            map.put(prefix + "p90_us", histogram.getPercentileMicros(90));
+            map.put(prefix + "p99_us", histogram.getPercentileMicros(99));
+            map.put(prefix + "max_us", histogram.getMaxMicros());
+        }
+        return map;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VolumeMetricsSnapshot" + toMap();
+    }
+
+    /**
+     * 延迟直方图
+     * <p>
+     * 按 2 的幂划分微秒区间，百分位为所在区间的上界
+     */
+    public static final class Histogram {
+
+        private final String name;
+
+        private final long count;
+
+        private final long totalNanos;
+
+        private final long maxNanos;
+
+        private final long[] buckets;
+
+        Histogram(String name, long count, long totalNanos, long maxNanos, long[] buckets) {
+            this.name = name;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.buckets = buckets;
+        }
+
+        @NonNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 记录次数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 平均延迟（微秒）
+         */
+        public long getMeanMicros() {
+            return 0L == count ? 0L : totalNanos / count / 1_000L;
+        }
+
+        /**
+         * 最大延迟（微秒）
+         */
+        public long getMaxMicros() {
+            return maxNanos / 1_000L;
+        }
+
+        /**
+         * 百分位延迟（微秒）
+         *
+         * @param percentile 0 ~ 100
+         */
+        public long getPercentileMicros(double percentile) {
+            if (0L == count) {
+                return 0L;
+            }
+            long rank = (long) Math.ceil(count * Math.max(0d, Math.min(100d, percentile)) / 100d);
+            long seen = 0L;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1L, rank)) {
+                    return Math.min(1L << i, getMaxMicros());
+                }
+            }
+            return getMaxMicros();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 音量配置
+ * <p>
+ * 记录一组音量流的音量、静音状态以及响铃模式，通过 {@link VolumeProfileStore} 持久化，
+ * 通过 {@link Volume#applyProfile(VolumeProfile)} 应用
+ *
+ * @author YMK
+ * @since 2025/12/03
+ */
+public final class VolumeProfile {
+
+    /**
+     * 没有设置
+     */
+    public static final int UNSET = StreamStateTable.UNKNOWN;
+
+    private final int id;
+
+    @NonNull
+    private String name;
+
+    private final int[] volumes = new int[StreamStateTable.CAPACITY];
+
+    private final int[] mutes = new int[StreamStateTable.CAPACITY];
+
+    private int ringMode = UNSET;
+
+    /**
+     * @param id 0 ~ {@link VolumeProfileStore#MAX_PROFILES} - 1
+     */
+    public VolumeProfile(int id, @NonNull String name) {
+        if (id < 0 || id >= VolumeProfileStore.MAX_PROFILES) {
+            throw new IllegalArgumentException("profile id out of range: " + id);
+        }
+        this.id = id;
+        this.name = name;
+        Arrays.fill(volumes, UNSET);
+        Arrays.fill(mutes, UNSET);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @NonNull
+    public VolumeProfile setName(@NonNull String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * 获取音量
+     *
+     * @return 没有设置时返回 {@link #UNSET}
+     */
+    public int getVolume(int streamType) {
+        return StreamStateTable.isValid(streamType) ? volumes[streamType] : UNSET;
+    }
+
+    /**
+     * 设置音量，传入 {@link #UNSET} 清除
+     */
+    @NonNull
+    public VolumeProfile setVolume(int streamType, int volume) {
+        checkStreamType(streamType);
+        volumes[streamType] = UNSET == volume ? UNSET : Math.max(0, Math.min(VolumeProfileStore.MAX_VOLUME, volume));
+        return this;
+    }
+
+    /**
+     * 是否设置了静音状态
+     */
+    public boolean hasMute(int streamType) {
+        return StreamStateTable.isValid(streamType) && UNSET != mutes[streamType];
+    }
+
+    /**
+     * 获取静音状态，没有设置时返回 false
+     */
+    public boolean isMute(int streamType) {
+        return StreamStateTable.isValid(streamType) && 1 == mutes[streamType];
+    }
+
+    /**
+     * 设置静音状态
+     */
+    @NonNull
+    public VolumeProfile setMute(int streamType, boolean mute) {
+        checkStreamType(streamType);
+        mutes[streamType] = mute ? 1 : 0;
+        return this;
+    }
+
+    /**
+     * 清除静音状态
+     */
+    @NonNull
+    public VolumeProfile clearMute(int streamType) {
+        checkStreamType(streamType);
+        mutes[streamType] = UNSET;
+        return this;
+    }
+
+    /**
+     * 获取响铃模式
+     *
+     * @return 没有设置时返回 {@link #UNSET}
+     */
+    public int getRingMode() {
+        return ringMode;
+    }
+
+    /**
+     * 设置响铃模式，传入 {@link #UNSET} 清除
+     */
+    @NonNull
+    public VolumeProfile setRingMode(int ringMode) {
+        this.ringMode = ringMode;
+        return this;
+    }
+
+    /**
+     * 转换为批量修改
+     */
+    @NonNull
+    public VolumeBatch toBatch() {
+        VolumeBatch batch = new VolumeBatch();
+        for (int streamType = 0; streamType < StreamStateTable.CAPACITY; streamType++) {
+            if (UNSET != volumes[streamType]) {
+                batch.setVolume(streamType, volumes[streamType]);
+            }
+            if (UNSET != mutes[streamType]) {
+                batch.setMute(streamType, 1 == mutes[streamType]);
+            }
+        }
+        if (UNSET != ringMode) {
+            batch.setRingMode(ringMode);
+        }
+        return batch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VolumeProfile)) {
+            return false;
+        }
+        VolumeProfile that = (VolumeProfile) o;
+        return id == that.id
+                && ringMode == that.ringMode
+                && name.equals(that.name)
+                && Arrays.equals(volumes, that.volumes)
+                && Arrays.equals(mutes, that.mutes);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id;
+        result = 31 * result + name.hashCode();
+        result = 31 * result + Arrays.hashCode(volumes);
+        result = 31 * result + Arrays.hashCode(mutes);
+        result = 31 * result + ringMode;
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VolumeProfile{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", volumes=" + Arrays.toString(volumes) +
+                ", mutes=" + Arrays.toString(mutes) +
+                ", ringMode=" + ringMode +
+                '}';
+    }
+
+    private static void checkStreamType(int streamType) {
+        if (!StreamStateTable.isValid(streamType)) {
+            throw new IllegalArgumentException("unsupported streamType: " + streamType);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 音量配置存储
+ * <p>
+ * 所有配置保存在一个定长二进制文件中，通过 {@link MappedByteBuffer} 读取，配置 id 即槽位下标，
+ * 读取一个配置只需要访问固定偏移处的 {@link #SLOT_SIZE} 字节，不需要解析整个文件
+ * <p>
+ * 写入时先写完整的临时文件，再重命名覆盖原文件并重新映射，
+ * 读线程要么看到旧文件要么看到新文件，不会读到写了一半的数据。
+ * Java 8 没有主动解除映射的接口，旧映射（以及被覆盖的旧文件）在 GC 回收后才释放；
+ * 每次写入只多占用一个文件大小（约 2 KB）的映射，配置很少修改，不适合频繁写入的场景
+ * <p>
+ * 文件布局（小端）：
+ * <pre>
+ * 头部 16 字节：magic(4) | version(4) | slotCount(4) | reserved(4)
+ * 槽位 64 字节：used(1) | nameLength(1) | muteKnown(2) | mutes(2) | reserved(2)
+ *             | ringMode(4) | volumes(16) | name(36)
+ * </pre>
+ *
+ * @author YMK
+ * @since 2025/12/03
+ */
+public final class VolumeProfileStore {
+
+    /**
+     * 最多保存的配置数量
+     */
+    public static final int MAX_PROFILES = 32;
+
+    /**
+     * 可保存的最大音量
+     */
+    static final int MAX_VOLUME = 0xFE;
+
+    private static final int MAGIC = 0x46525056;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    static final int SLOT_SIZE = 64;
+
+    private static final int FILE_SIZE = HEADER_SIZE + MAX_PROFILES * SLOT_SIZE;
+
+    private static final int OFFSET_USED = 0;
+
+    private static final int OFFSET_NAME_LENGTH = 1;
+
+    private static final int OFFSET_MUTE_KNOWN = 2;
+
+    private static final int OFFSET_MUTES = 4;
+
+    private static final int OFFSET_RING_MODE = 8;
+
+    private static final int OFFSET_VOLUMES = 12;
+
+    private static final int OFFSET_NAME = OFFSET_VOLUMES + StreamStateTable.CAPACITY;
+
+    private static final int MAX_NAME_LENGTH = SLOT_SIZE - OFFSET_NAME;
+
+    /**
+     * 音量未设置
+     */
+    private static final int VOLUME_UNSET = 0xFF;
+
+    private final File file;
+
+    /**
+     * 当前映射，写入后整体替换
+     */
+    private volatile ByteBuffer buffer;
+
+    private VolumeProfileStore(File file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 打开配置文件
+     * <p>
+     * 文件不存在或格式不正确时视为没有配置，在第一次写入时重新创建
+     */
+    @NonNull
+    public static VolumeProfileStore open(@NonNull File file) throws IOException {
+        ByteBuffer buffer = map(file);
+        if (null == buffer) {
+            buffer = emptyImage();
+        }
+        return new VolumeProfileStore(file, buffer);
+    }
+
+    /**
+     * 是否存在配置
+     */
+    public boolean contains(int id) {
+        checkId(id);
+        return 0 != buffer.get(slotOffset(id) + OFFSET_USED);
+    }
+
+    /**
+     * 读取配置
+     *
+     * @return 不存在时返回 null
+     */
+    @Nullable
+    public VolumeProfile get(int id) {
+        checkId(id);
+        ByteBuffer buf = buffer;
+        int offset = slotOffset(id);
+        if (0 == buf.get(offset + OFFSET_USED)) {
+            return null;
+        }
+        int nameLength = buf.get(offset + OFFSET_NAME_LENGTH) & 0xFF;
+        byte[] name = new byte[Math.min(nameLength, MAX_NAME_LENGTH)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = buf.get(offset + OFFSET_NAME + i);
+        }
+        VolumeProfile profile = new VolumeProfile(id, new String(name, StandardCharsets.UTF_8));
+        int muteKnown = buf.getShort(offset + OFFSET_MUTE_KNOWN) & 0xFFFF;
+        int mutes = buf.getShort(offset + OFFSET_MUTES) & 0xFFFF;
+        for (int streamType = 0; streamType < StreamStateTable.CAPACITY; streamType++) {
+            int volume = buf.get(offset + OFFSET_VOLUMES + streamType) & 0xFF;
+            if (VOLUME_UNSET != volume) {
+                profile.setVolume(streamType, volume);
+            }
+            if ((muteKnown & (1 << streamType)) != 0) {
+                profile.setMute(streamType, (mutes & (1 << streamType)) != 0);
+            }
+        }
+        profile.setRingMode(buf.getInt(offset + OFFSET_RING_MODE));
+        return profile;
+    }
+
+    /**
+     * 读取配置并转换为批量修改，不创建中间对象
+     *
+     * @return 不存在时返回 null
+     */
+    @Nullable
+    VolumeBatch getBatch(int id) {
+        checkId(id);
+        ByteBuffer buf = buffer;
+        int offset = slotOffset(id);
+        if (0 == buf.get(offset + OFFSET_USED)) {
+            return null;
+        }
+        VolumeBatch batch = new VolumeBatch();
+        int muteKnown = buf.getShort(offset + OFFSET_MUTE_KNOWN) & 0xFFFF;
+        int mutes = buf.getShort(offset + OFFSET_MUTES) & 0xFFFF;
+        for (int streamType = 0; streamType < StreamStateTable.CAPACITY; streamType++) {
+            int volume = buf.get(offset + OFFSET_VOLUMES + streamType) & 0xFF;
+            if (VOLUME_UNSET != volume) {
+                batch.setVolume(streamType, volume);
+            }
+            if ((muteKnown & (1 << streamType)) != 0) {
+                batch.setMute(streamType, (mutes & (1 << streamType)) != 0);
+            }
+        }
+        int ringMode = buf.getInt(offset + OFFSET_RING_MODE);
+        if (VolumeProfile.UNSET != ringMode) {
+            batch.setRingMode(ringMode);
+        }
+        return batch;
+    }
+
+    /**
+     * 所有已保存配置的 id
+     */
+    @NonNull
+    public int[] ids() {
+        ByteBuffer buf = buffer;
+        int count = 0;
+        int[] ids = new int[MAX_PROFILES];
+        for (int id = 0; id < MAX_PROFILES; id++) {
+            if (0 != buf.get(slotOffset(id) + OFFSET_USED)) {
+                ids[count++] = id;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(ids, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * 保存配置，覆盖相同 id 的配置
+     */
+    public synchronized void put(@NonNull VolumeProfile profile) throws IOException {
+        ByteBuffer image = copyImage();
+        int offset = slotOffset(profile.getId());
+        byte[] name = encodeName(profile.getName());
+        int muteKnown = 0;
+        int mutes = 0;
+        for (int streamType = 0; streamType < StreamStateTable.CAPACITY; streamType++) {
+            int volume = profile.getVolume(streamType);
+            image.put(offset + OFFSET_VOLUMES + streamType,
+                    (byte) (VolumeProfile.UNSET == volume ? VOLUME_UNSET : volume));
+            if (profile.hasMute(streamType)) {
+                muteKnown |= 1 << streamType;
+                if (profile.isMute(streamType)) {
+                    mutes |= 1 << streamType;
+                }
+            }
+        }
+        image.put(offset + OFFSET_USED, (byte) 1);
+        image.put(offset + OFFSET_NAME_LENGTH, (byte) name.length);
+        image.putShort(offset + OFFSET_MUTE_KNOWN, (short) muteKnown);
+        image.putShort(offset + OFFSET_MUTES, (short) mutes);
+        image.putInt(offset + OFFSET_RING_MODE, profile.getRingMode());
+        for (int i = 0; i < MAX_NAME_LENGTH; i++) {
+            image.put(offset + OFFSET_NAME + i, i < name.length ? name[i] : 0);
+        }
+        swap(image);
+    }
+
+    /**
+     * 删除配置
+     *
+     * @return 配置是否存在
+     */
+    public synchronized boolean remove(int id) throws IOException {
+        if (!contains(id)) {
+            return false;
+        }
+        ByteBuffer image = copyImage();
+        int offset = slotOffset(id);
+        for (int i = 0; i < SLOT_SIZE; i++) {
+            image.put(offset + i, (byte) 0);
+        }
+        swap(image);
+        return true;
+    }
+
+    /**
+     * 写入临时文件后重命名覆盖原文件，再映射新文件
+     */
+    private void swap(ByteBuffer image) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.getChannel().write((ByteBuffer) image.rewind());
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("failed to replace " + file);
+        }
+        ByteBuffer mapped = map(file);
+        if (null == mapped) {
+            throw new IOException("failed to map " + file);
+        }
+        buffer = mapped;
+    }
+
+    /**
+     * 当前内容的可写副本
+     */
+    private ByteBuffer copyImage() {
+        ByteBuffer image = ByteBuffer.allocate(FILE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer source = buffer.duplicate();
+        source.clear();
+        image.put(source);
+        return image;
+    }
+
+    /**
+     * 只读映射文件
+     *
+     * @return 文件不存在或格式不正确时返回 null
+     */
+    @Nullable
+    private static ByteBuffer map(File file) throws IOException {
+        if (!file.isFile() || file.length() != FILE_SIZE) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // 关闭通道后映射仍然有效
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (MAGIC != mapped.getInt(0) || VERSION != mapped.getInt(4) || MAX_PROFILES != mapped.getInt(8)) {
+                return null;
+            }
+            return mapped;
+        }
+    }
+
+    private static ByteBuffer emptyImage() {
+        ByteBuffer image = ByteBuffer.allocate(FILE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        image.putInt(0, MAGIC);
+        image.putInt(4, VERSION);
+        image.putInt(8, MAX_PROFILES);
+        return image;
+    }
+
+    /**
+     * 名称编码为 UTF-8，超长时按字符截断
+     */
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int end = name.length();
+        while (bytes.length > MAX_NAME_LENGTH) {
+            end = name.offsetByCodePoints(end, -1);
+            bytes = name.substring(0, end).getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private static int slotOffset(int id) {
+        return HEADER_SIZE + id * SLOT_SIZE;
+    }
+
+    private static void checkId(int id) {
+        if (id < 0 || id >= MAX_PROFILES) {
+            throw new IllegalArgumentException("profile id out of range: " + id);
+        }
+    }
+}
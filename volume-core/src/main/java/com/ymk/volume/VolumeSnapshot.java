@@ -0,0 +1,150 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 所有音量流在同一时刻的状态快照
+ * <p>
+ * 不可变对象，可以在任意线程读取。通过 {@link Volume#getAllVolumes()} 获取
+ *
+ * @author YMK
+ * @since 2025/11/27
+ */
+public final class VolumeSnapshot {
+
+    /**
+     * 未知状态
+     * <p>
+     * 音量、范围、响铃模式没有被记录时返回该值
+     */
+    public static final int UNKNOWN = StreamStateTable.UNKNOWN;
+
+    private final long version;
+
+    private final int[] volumes;
+
+    private final int[] minVolumes;
+
+    private final int[] maxVolumes;
+
+    private final long muteKnown;
+
+    private final long mutes;
+
+    private final int ringMode;
+
+    VolumeSnapshot(long version, int[] volumes, int[] minVolumes, int[] maxVolumes,
+                   long muteKnown, long mutes, int ringMode) {
+        this.version = version;
+        this.volumes = volumes;
+        this.minVolumes = minVolumes;
+        this.maxVolumes = maxVolumes;
+        this.muteKnown = muteKnown;
+        this.mutes = mutes;
+        this.ringMode = ringMode;
+    }
+
+    /**
+     * 快照版本号，状态每次改变都会递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取音量
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    public int getVolume(int streamType) {
+        return StreamStateTable.isValid(streamType) ? volumes[streamType] : UNKNOWN;
+    }
+
+    /**
+     * 是否记录了音量
+     */
+    public boolean hasVolume(int streamType) {
+        return UNKNOWN != getVolume(streamType);
+    }
+
+    /**
+     * 获取最小音量
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    public int getMinVolume(int streamType) {
+        return StreamStateTable.isValid(streamType) ? minVolumes[streamType] : UNKNOWN;
+    }
+
+    /**
+     * 获取最大音量
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    public int getMaxVolume(int streamType) {
+        return StreamStateTable.isValid(streamType) ? maxVolumes[streamType] : UNKNOWN;
+    }
+
+    /**
+     * 是否静音
+     * <p>
+     * 没有记录时返回 false，可通过 {@link #hasMute(int)} 判断
+     */
+    public boolean isMute(int streamType) {
+        return StreamStateTable.isValid(streamType) && (mutes & (1L << streamType)) != 0;
+    }
+
+    /**
+     * 是否记录了静音状态
+     */
+    public boolean hasMute(int streamType) {
+        return StreamStateTable.isValid(streamType) && (muteKnown & (1L << streamType)) != 0;
+    }
+
+    /**
+     * 获取系统响铃模式
+     *
+     * @return 没有记录时返回 {@link #UNKNOWN}
+     */
+    public int getRingMode() {
+        return ringMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VolumeSnapshot)) {
+            return false;
+        }
+        VolumeSnapshot that = (VolumeSnapshot) o;
+        return muteKnown == that.muteKnown
+                && mutes == that.mutes
+                && ringMode == that.ringMode
+                && Arrays.equals(volumes, that.volumes)
+                && Arrays.equals(minVolumes, that.minVolumes)
+                && Arrays.equals(maxVolumes, that.maxVolumes);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(volumes);
+        result = 31 * result + Long.hashCode(mutes);
+        result = 31 * result + ringMode;
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VolumeSnapshot{" +
+                "version=" + version +
+                ", volumes=" + Arrays.toString(volumes) +
+                ", mutes=" + Long.toBinaryString(mutes) +
+                ", ringMode=" + ringMode +
+                '}';
+    }
+}
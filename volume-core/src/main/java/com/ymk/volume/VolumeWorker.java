@@ -0,0 +1,122 @@
+package com.ymk.volume;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 音量库工作线程
+ * <p>
+ * 所有对 AudioManager 的写操作都在这条线程上串行执行，保证顺序的同时避免阻塞调用方线程
+ *
+ * @author YMK
+ * @since 2025/11/25
+ */
+final class VolumeWorker {
+
+    private static final String THREAD_NAME = "Volume-Worker";
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * 工作线程
+     */
+    private volatile Thread workerThread;
+
+    VolumeWorker() {
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            workerThread = thread;
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 当前线程是否是工作线程
+     */
+    boolean isWorkerThread() {
+        return Thread.currentThread() == workerThread;
+    }
+
+    /**
+     * 在工作线程上执行
+     */
+    void execute(Runnable task) {
+        executor.execute(new SafeTask(task));
+    }
+
+    /**
+     * 延时在工作线程上执行
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+        return executor.schedule(new SafeTask(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在工作线程上执行 并返回结果
+     */
+    <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    /**
+     * 在工作线程上执行 返回 CompletableFuture
+     */
+    <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * 在工作线程上执行 返回 CompletableFuture
+     */
+    CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, executor);
+    }
+
+    /**
+     * 在工作线程上执行 并阻塞等待结果
+     * <p>
+     * 已经在工作线程上时直接执行，避免死锁
+     */
+    <T> T call(Supplier<T> task) {
+        if (isWorkerThread()) {
+            return task.get();
+        }
+        try {
+            return supply(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 捕获任务异常 避免异常被 Future 吞掉而无法排查
+     */
+    private static final class SafeTask implements Runnable {
+
+        private final Runnable task;
+
+        SafeTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.ymk.volume;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 音量写入管线
+ * <p>
+ * 每个音量流只有一个待写入槽位，新值直接覆盖旧值（latest-wins），
+ * 写入在 {@link VolumeWorker} 上延时 {@link #COALESCE_WINDOW_MS} 执行，
+ * 拖动进度条时产生的连续写入会被合并成一次 Binder 调用
+ * <p>
+ * 与当前已知音量相同的写入会被丢弃，超出已知范围的写入会先在本地限制
+ *
+ * @author YMK
+ * @since 2025/11/25
+ */
+final class VolumeWriter {
+
+    /**
+     * 合并写入的时间窗口
+     */
+    static final long COALESCE_WINDOW_MS = 20L;
+
+    /**
+     * 没有待写入 / 从未写入
+     */
+    private static final int NONE = Integer.MIN_VALUE;
+
+    /**
+     * 最后一次写入后收到了不一致的系统音量，此时不能再以写入值判断是否重复
+     */
+    private static final int DIRTY = Integer.MIN_VALUE + 1;
+
+    /**
+     * 真正执行写入的地方
+     */
+    interface Sink {
+
+        /**
+         * 写入音量
+         *
+         * @return 是否写入成功
+         */
+        boolean setVolume(int streamType, int volume, int flags);
+
+        /**
+         * 查询最小音量
+         */
+        int getMinVolume(int streamType);
+
+        /**
+         * 查询最大音量
+         */
+        int getMaxVolume(int streamType);
+    }
+
+    private final StreamStateTable table;
+
+    private final VolumeWorker worker;
+
+    private final Sink sink;
+
+    /**
+     * 待写入的音量
+     */
+    private final AtomicIntegerArray pending = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 待写入音量对应的 flags
+     */
+    private final AtomicIntegerArray pendingFlags = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 最后一次写入系统的音量
+     */
+    private final AtomicIntegerArray committed = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 每个音量流的写入任务，预先创建避免每次提交都分配对象
+     */
+    private final Runnable[] drainTasks = new Runnable[StreamStateTable.CAPACITY];
+
+    private final Runnable drainAllTask = this::drainAll;
+
+    VolumeWriter(StreamStateTable table, VolumeWorker worker, Sink sink) {
+        this.table = table;
+        this.worker = worker;
+        this.sink = sink;
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            pending.set(i, NONE);
+            committed.set(i, NONE);
+            final int streamType = i;
+            drainTasks[i] = () -> drain(streamType);
+        }
+    }
+
+    /**
+     * 提交一次音量写入
+     */
+    void submit(final int streamType, int volume, final int flags) {
+        if (!StreamStateTable.isValid(streamType)) {
+            // 状态表之外的音量流 不做合并
+            final int value = volume;
+            worker.execute(() -> sink.setVolume(streamType, value, flags));
+            return;
+        }
+
+        VolumeMetrics.count(VolumeMetrics.WRITE_SUBMITTED);
+        volume = table.clamp(streamType, volume);
+        pendingFlags.set(streamType, flags);
+        int previous = pending.getAndSet(streamType, volume);
+        if (NONE != previous) {
+            // 已经有写入任务在等待 合并到该任务中
+            VolumeMetrics.count(VolumeMetrics.WRITE_COALESCED);
+            return;
+        }
+        if (volume == knownVolume(streamType) && pending.compareAndSet(streamType, volume, NONE)) {
+            // 与当前音量相同 丢弃
+            VolumeMetrics.count(VolumeMetrics.WRITE_ELIDED);
+            return;
+        }
+        worker.schedule(drainTasks[streamType], COALESCE_WINDOW_MS);
+    }
+
+    /**
+     * 收到系统音量
+     * <p>
+     * 与最后一次写入值不一致时，说明音量被其他地方修改过（或是较早写入的延迟广播），
+     * 之后的写入不再根据写入值判断是否重复
+     */
+    void onSystemVolume(int streamType, int volume) {
+        if (!StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        int last = committed.get(streamType);
+        if (last >= 0 && last != volume) {
+            committed.compareAndSet(streamType, last, DIRTY);
+        }
+    }
+
+    /**
+     * 是否有尚未写入的音量
+     */
+    boolean hasPending() {
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            if (NONE != pending.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 立即写入所有待写入的音量，并等待写入完成
+     *
+     * @return 是否在超时前完成
+     */
+    boolean flush(long timeout, TimeUnit unit) {
+        if (worker.isWorkerThread()) {
+            drainAll();
+            return true;
+        }
+        Future<?> future = worker.submit(() -> {
+            drainAllTask.run();
+            return null;
+        });
+        try {
+            future.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            return true;
+        }
+    }
+
+    /**
+     * 立即写入某个音量流待写入的音量
+     * <p>
+     * 只能在工作线程调用，用于保证其他写操作（调节、静音）不会被延时写入的音量覆盖
+     */
+    void drainNow(int streamType) {
+        if (StreamStateTable.isValid(streamType)) {
+            drain(streamType);
+        }
+    }
+
+    /**
+     * 立即写入音量 不经过合并
+     * <p>
+     * 只能在工作线程调用，该音量流待写入的音量会被丢弃
+     *
+     * @return 是否写入成功，与当前音量相同被丢弃时也认为成功
+     */
+    boolean writeNow(int streamType, int volume, int flags) {
+        if (!StreamStateTable.isValid(streamType)) {
+            return sink.setVolume(streamType, volume, flags);
+        }
+        pending.set(streamType, NONE);
+        return write(streamType, volume, flags);
+    }
+
+    /**
+     * 当前已知音量
+     * <p>
+     * 优先使用最后一次写入值，没有写入过则使用状态表中的值。
+     * 状态表过期（没有接收广播）时无法得知音量是否被其他地方修改，返回未知
+     */
+    int knownVolume(int streamType) {
+        if (table.isStale()) {
+            return StreamStateTable.UNKNOWN;
+        }
+        int last = committed.get(streamType);
+        if (last >= 0) {
+            return last;
+        }
+        if (DIRTY == last) {
+            return StreamStateTable.UNKNOWN;
+        }
+        return table.getVolume(streamType);
+    }
+
+    private void drainAll() {
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            drain(i);
+        }
+    }
+
+    /**
+     * 在工作线程执行写入
+     */
+    private void drain(int streamType) {
+        int volume = pending.getAndSet(streamType, NONE);
+        if (NONE == volume) {
+            return;
+        }
+        write(streamType, volume, pendingFlags.get(streamType));
+    }
+
+    private boolean write(int streamType, int volume, int flags) {
+        if (!table.hasRange(streamType)) {
+            table.setRange(streamType, sink.getMinVolume(streamType), sink.getMaxVolume(streamType));
+        }
+        volume = table.clamp(streamType, volume);
+        if (volume == knownVolume(streamType)) {
+            VolumeMetrics.count(VolumeMetrics.WRITE_ELIDED);
+            return true;
+        }
+        if (!sink.setVolume(streamType, volume, flags)) {
+            return false;
+        }
+        VolumeMetrics.count(VolumeMetrics.WRITE_COMMITTED);
+        committed.set(streamType, volume);
+        return true;
+    }
+}
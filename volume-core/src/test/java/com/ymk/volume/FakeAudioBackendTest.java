@@ -0,0 +1,89 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link FakeAudioBackend} 系统行为模拟测试
+ *
+ * @author YMK
+ * @since 2025/12/11
+ */
+public class FakeAudioBackendTest {
+
+    private final FakeAudioBackend backend = new FakeAudioBackend();
+
+    private final List<String> events = new ArrayList<>();
+
+    {
+        backend.setListener(new FakeAudioBackend.Listener() {
+            @Override
+            public void onVolumeChanged(int streamType, int value, int preValue) {
+                events.add("volume " + streamType + " " + preValue + "->" + value);
+            }
+
+            @Override
+            public void onMuteChanged(int streamType, boolean isMute) {
+                events.add("mute " + streamType + " " + isMute);
+            }
+
+            @Override
+            public void onRingModeChanged(int ringMode) {
+                events.add("ringMode " + ringMode);
+            }
+        });
+    }
+
+    @Test
+    public void volumeIsClampedAndAliasGroupNotified() {
+        backend.setVolume(StreamTypes.STREAM_MUSIC, 99, 0);
+        assertEquals(15, backend.getVolume(StreamTypes.STREAM_MUSIC));
+        // 无障碍跟随媒体
+        assertEquals(15, backend.getVolume(StreamTypes.STREAM_ACCESSIBILITY));
+        assertEquals(2, events.size());
+        assertEquals("volume 3 7->15", events.get(0));
+        assertEquals("volume 10 7->15", events.get(1));
+
+        events.clear();
+        backend.setVolume(StreamTypes.STREAM_NOTIFICATION, 5, 0);
+        assertEquals(5, backend.getVolume(StreamTypes.STREAM_RING));
+        // 系统、铃声、通知、拨号音
+        assertEquals(4, events.size());
+    }
+
+    @Test
+    public void ringVolumeZeroEntersVibrate() {
+        backend.setVolume(StreamTypes.STREAM_RING, 0, FakeAudioBackend.FLAG_ALLOW_RINGER_MODES);
+        assertEquals(FakeAudioBackend.RINGER_MODE_VIBRATE, backend.getRingMode());
+        assertTrue(backend.isMute(StreamTypes.STREAM_RING));
+        assertEquals(0, backend.getVolume(StreamTypes.STREAM_NOTIFICATION));
+        assertEquals("ringMode 1", events.get(0));
+        assertEquals("mute 1 true", events.get(1));
+
+        events.clear();
+        backend.adjustVolume(StreamTypes.STREAM_RING, true, 0);
+        assertEquals(FakeAudioBackend.RINGER_MODE_NORMAL, backend.getRingMode());
+        assertFalse(backend.isMute(StreamTypes.STREAM_RING));
+        assertEquals(1, backend.getVolume(StreamTypes.STREAM_RING));
+    }
+
+    @Test
+    public void silentModeRequiresPolicyAccess() {
+        backend.setPolicyAccessGranted(false);
+        assertFalse(backend.setRingMode(FakeAudioBackend.RINGER_MODE_SILENT));
+        assertEquals(FakeAudioBackend.RINGER_MODE_NORMAL, backend.getRingMode());
+        assertTrue(events.isEmpty());
+
+        backend.setMute(StreamTypes.STREAM_MUSIC, true, 0);
+        assertEquals(0, backend.getVolume(StreamTypes.STREAM_MUSIC));
+        backend.adjustVolume(StreamTypes.STREAM_MUSIC, true, 0);
+        assertFalse(backend.isMute(StreamTypes.STREAM_MUSIC));
+        assertEquals(1, backend.getVolume(StreamTypes.STREAM_MUSIC));
+    }
+}
@@ -0,0 +1,101 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RampEngine} 渐变测试
+ *
+ * @author YMK
+ * @since 2025/12/01
+ */
+public class RampEngineTest {
+
+    private static final int STREAM = 3;
+
+    private final List<Integer> writes = new ArrayList<>();
+
+    private volatile int volume = 2;
+
+    private final RampEngine engine = new RampEngine(new VolumeWorker(), new RampEngine.Target() {
+        @Override
+        public int getVolume(int streamType) {
+            return volume;
+        }
+
+        @Override
+        public int clamp(int streamType, int value) {
+            return Math.max(0, Math.min(15, value));
+        }
+
+        @Override
+        public void setVolume(int streamType, int value, int flags) {
+            synchronized (writes) {
+                writes.add(value);
+            }
+            volume = value;
+        }
+    });
+
+    @Test
+    public void linearScheduleIsEvenlySpaced() {
+        assertArrayEquals(new long[]{25, 50, 75, 100}, RampEngine.schedule(4, 100, Easing.LINEAR));
+    }
+
+    @Test
+    public void rampWritesEveryStepOnce() throws Exception {
+        assertTrue(engine.start(STREAM, 20, 50, Easing.EASE_IN_OUT, 0).get(1, TimeUnit.SECONDS));
+
+        // 目标被限制到 15，从 2 开始每档写入一次
+        assertEquals(13, writes.size());
+        for (int i = 0; i < writes.size(); i++) {
+            assertEquals(3 + i, (int) writes.get(i));
+        }
+        assertFalse(engine.isRamping(STREAM));
+    }
+
+    @Test
+    public void externalChangeCancelsRamp() throws Exception {
+        CompletableFuture<Boolean> result = engine.start(STREAM, 12, 10_000, Easing.LINEAR, 0);
+        Thread.sleep(100);
+
+        // 已经走过的音量视为渐变自身的延迟广播
+        engine.onSystemVolume(STREAM, 2);
+        assertTrue(engine.isRamping(STREAM));
+
+        engine.onSystemVolume(STREAM, 14);
+        assertFalse(result.get(1, TimeUnit.SECONDS));
+        assertFalse(engine.isRamping(STREAM));
+    }
+
+    @Test
+    public void cancelAllStopsEveryRamp() throws Exception {
+        CompletableFuture<Boolean> music = engine.start(STREAM, 12, 10_000, Easing.LINEAR, 0);
+        CompletableFuture<Boolean> ring = engine.start(2, 12, 10_000, Easing.LINEAR, 0);
+
+        engine.cancelAll();
+        assertFalse(music.get(1, TimeUnit.SECONDS));
+        assertFalse(ring.get(1, TimeUnit.SECONDS));
+        assertFalse(engine.isRamping(STREAM));
+        assertFalse(engine.isRamping(2));
+
+        // 已经安排的下一步不会再写入
+        int count;
+        synchronized (writes) {
+            count = writes.size();
+        }
+        Thread.sleep(200);
+        synchronized (writes) {
+            assertEquals(count, writes.size());
+        }
+    }
+}
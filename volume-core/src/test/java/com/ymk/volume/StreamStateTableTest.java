@@ -0,0 +1,77 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * {@link StreamStateTable} 读写与快照版本测试
+ *
+ * @author YMK
+ * @since 2025/12/14
+ */
+public class StreamStateTableTest {
+
+    @Test
+    public void sequenceChangesOnlyWhenStateChanges() {
+        StreamStateTable table = new StreamStateTable();
+        long initial = table.sequence();
+
+        assertTrue(table.setVolume(StreamTypes.STREAM_MUSIC, 5));
+        long afterVolume = table.sequence();
+        assertTrue(initial != afterVolume);
+
+        assertFalse(table.setVolume(StreamTypes.STREAM_MUSIC, 5));
+        assertEquals(afterVolume, table.sequence());
+
+        assertTrue(table.setRingMode(2));
+        assertTrue(afterVolume != table.sequence());
+    }
+
+    @Test
+    public void snapshotVersionMatchesSequence() {
+        StreamStateTable table = new StreamStateTable();
+        table.setRange(StreamTypes.STREAM_MUSIC, 0, 15);
+        table.setVolume(StreamTypes.STREAM_MUSIC, 7);
+        table.setMute(StreamTypes.STREAM_MUSIC, true);
+        table.setRingMode(1);
+
+        VolumeSnapshot snapshot = table.snapshot();
+        assertEquals(table.sequence(), snapshot.getVersion());
+        assertEquals(7, snapshot.getVolume(StreamTypes.STREAM_MUSIC));
+        assertEquals(15, snapshot.getMaxVolume(StreamTypes.STREAM_MUSIC));
+        assertTrue(snapshot.isMute(StreamTypes.STREAM_MUSIC));
+        assertEquals(1, snapshot.getRingMode());
+
+        // 改回相同的值 版本号仍然前进 不会与之前的快照混淆
+        table.setVolume(StreamTypes.STREAM_MUSIC, 8);
+        table.setVolume(StreamTypes.STREAM_MUSIC, 7);
+        assertTrue(snapshot.getVersion() != table.sequence());
+    }
+
+    @Test
+    public void clearAndStaleHideRecords() {
+        StreamStateTable table = new StreamStateTable();
+        table.setVolume(StreamTypes.STREAM_RING, 3);
+        table.setMute(StreamTypes.STREAM_RING, true);
+        table.setRingMode(2);
+
+        table.setStale(true);
+        assertFalse(table.hasMute(StreamTypes.STREAM_RING));
+        assertEquals(1, table.getMuteRecord(StreamTypes.STREAM_RING));
+        assertEquals(StreamStateTable.UNKNOWN, table.getVolume(StreamTypes.STREAM_RING));
+        assertEquals(3, table.getVolumeRecord(StreamTypes.STREAM_RING));
+        assertEquals(StreamStateTable.UNKNOWN, table.snapshot().getRingMode());
+        table.setStale(false);
+        assertEquals(3, table.getVolume(StreamTypes.STREAM_RING));
+
+        long before = table.sequence();
+        table.clear();
+        assertEquals(StreamStateTable.UNKNOWN, table.getVolume(StreamTypes.STREAM_RING));
+        assertEquals(StreamStateTable.UNKNOWN, table.getVolumeRecord(StreamTypes.STREAM_RING));
+        assertEquals(StreamStateTable.UNKNOWN, table.getRingMode());
+        assertTrue(table.sequence() > before);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * {@link VolumeMapper} 查找表测试
+ *
+ * @author YMK
+ * @since 2025/11/30
+ */
+public class VolumeMapperTest {
+
+    @Test
+    public void linearPercentRoundTrip() {
+        VolumeMapper.PercentTable table = new VolumeMapper.PercentTable(1, 15, VolumeCurve.LINEAR);
+
+        assertEquals(1, table.toIndex(0));
+        assertEquals(15, table.toIndex(100));
+        assertEquals(15, table.toIndex(1000));
+        assertEquals(0, table.toPercent(1));
+        assertEquals(100, table.toPercent(15));
+        for (int index = 1; index <= 15; index++) {
+            assertEquals(index, table.toIndex(table.toPercent(index)));
+        }
+    }
+
+    @Test
+    public void logarithmicCurveIsMonotonic() {
+        VolumeMapper.PercentTable table = new VolumeMapper.PercentTable(0, 25, VolumeCurve.LOGARITHMIC);
+
+        int previous = -1;
+        for (int percent = 0; percent <= 100; percent++) {
+            int index = table.toIndex(percent);
+            assertTrue(index >= previous);
+            previous = index;
+        }
+        assertEquals(25, previous);
+        // 低百分比区间分配更多的档位
+        assertTrue(table.toIndex(20) > 5);
+    }
+
+    @Test
+    public void dbLookupFindsLargestIndexNotAbove() {
+        VolumeMapper.DbTable table = new VolumeMapper.DbTable(3, 0, 10, 2,
+                (streamType, index, deviceType) -> index == 0 ? -96f : -60f + index * 6f);
+
+        assertEquals(-96f, table.toDb(0), 0f);
+        assertEquals(0f, table.toDb(10), 0f);
+        assertEquals(5, table.toIndex(-30f));
+        assertEquals(4, table.toIndex(-31f));
+        assertEquals(0, table.toIndex(-200f));
+        assertEquals(10, table.toIndex(12f));
+    }
+}
@@ -0,0 +1,77 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link VolumeMetrics} 计数与直方图测试
+ *
+ * @author YMK
+ * @since 2025/12/08
+ */
+public class VolumeMetricsTest {
+
+    @Before
+    public void setUp() {
+        VolumeMetrics.setEnabled(true);
+        VolumeMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        VolumeMetrics.setEnabled(true);
+        VolumeMetrics.reset();
+    }
+
+    @Test
+    public void countersAreExportedByName() {
+        VolumeMetrics.count(VolumeMetrics.WRITE_COALESCED);
+        VolumeMetrics.count(VolumeMetrics.WRITE_COALESCED);
+        VolumeMetrics.count(VolumeMetrics.POST_VALUE_DROPPED);
+
+        VolumeMetricsSnapshot snapshot = VolumeMetrics.snapshot();
+        assertEquals(2L, snapshot.getCounter("write.coalesced"));
+        assertEquals(1L, snapshot.getCounter("post_value.dropped"));
+        assertEquals(Long.valueOf(2L), snapshot.toMap().get("write.coalesced"));
+
+        VolumeMetrics.reset();
+        assertEquals(0L, VolumeMetrics.snapshot().getCounter("write.coalesced"));
+    }
+
+    @Test
+    public void histogramPercentilesFollowBuckets() {
+        for (int i = 0; i < 99; i++) {
+            VolumeMetrics.record(VolumeMetrics.BINDER_SET_VOLUME, 100_000L);
+        }
+        VolumeMetrics.record(VolumeMetrics.BINDER_SET_VOLUME, 50_000_000L);
+
+        VolumeMetricsSnapshot.Histogram histogram = VolumeMetrics.snapshot().getHistogram("binder.set_volume");
+        assertEquals(100L, histogram.getCount());
+        assertEquals(50_000L, histogram.getMaxMicros());
+        // 100us 落在 [64, 128) 区间
+        assertEquals(128L, histogram.getPercentileMicros(50));
+        assertEquals(128L, histogram.getPercentileMicros(99));
+        assertEquals(50_000L, histogram.getPercentileMicros(100));
+        assertTrue(histogram.getMeanMicros() > 100L);
+    }
+
+    @Test
+    public void disabledRecordsNothing() {
+        VolumeMetrics.setEnabled(false);
+        assertEquals(0L, VolumeMetrics.start());
+        VolumeMetrics.count(VolumeMetrics.BROADCAST_VOLUME);
+        VolumeMetrics.stop(VolumeMetrics.BINDER_GET_VOLUME, VolumeMetrics.start());
+        VolumeMetrics.onReceived(3);
+        VolumeMetrics.setEnabled(true);
+        VolumeMetrics.onDispatched(3);
+
+        VolumeMetricsSnapshot snapshot = VolumeMetrics.snapshot();
+        assertEquals(0L, snapshot.getCounter("broadcast.volume"));
+        assertEquals(0L, snapshot.getHistogram("binder.get_volume").getCount());
+        assertEquals(0L, snapshot.getHistogram("broadcast_to_dispatch").getCount());
+    }
+}
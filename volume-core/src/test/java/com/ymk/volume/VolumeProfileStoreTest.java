@@ -0,0 +1,75 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * {@link VolumeProfileStore} 读写测试
+ *
+ * @author YMK
+ * @since 2025/12/03
+ */
+public class VolumeProfileStoreTest {
+
+    private static File newFile() throws IOException {
+        File file = File.createTempFile("profiles", ".bin");
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+        file.deleteOnExit();
+        new File(file.getPath() + ".tmp").deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void profileSurvivesReopen() throws IOException {
+        File file = newFile();
+        VolumeProfile meeting = new VolumeProfile(3, "会议")
+                .setVolume(2, 0)
+                .setVolume(3, 4)
+                .setMute(5, true)
+                .setRingMode(1);
+
+        VolumeProfileStore store = VolumeProfileStore.open(file);
+        assertNull(store.get(3));
+        store.put(meeting);
+        assertEquals(meeting, store.get(3));
+
+        VolumeProfileStore reopened = VolumeProfileStore.open(file);
+        assertEquals(meeting, reopened.get(3));
+        assertArrayEquals(new int[]{3}, reopened.ids());
+    }
+
+    @Test
+    public void removeClearsSlot() throws IOException {
+        VolumeProfileStore store = VolumeProfileStore.open(newFile());
+        store.put(new VolumeProfile(0, "a").setVolume(3, 1));
+        store.put(new VolumeProfile(1, "b").setVolume(3, 2));
+
+        assertTrue(store.remove(0));
+        assertFalse(store.remove(0));
+        assertFalse(store.contains(0));
+        assertEquals(2, store.get(1).getVolume(3));
+    }
+
+    @Test
+    public void corruptFileIsTreatedAsEmpty() throws IOException {
+        File file = newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{1, 2, 3});
+        }
+
+        VolumeProfileStore store = VolumeProfileStore.open(file);
+        assertEquals(0, store.ids().length);
+        store.put(new VolumeProfile(7, "一个很长很长很长很长很长很长的名字"));
+        assertTrue(VolumeProfileStore.open(file).contains(7));
+    }
+}
@@ -0,0 +1,96 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link VolumeWriter} 合并写入测试
+ *
+ * @author YMK
+ * @since 2025/11/25
+ */
+public class VolumeWriterTest {
+
+    private static final int STREAM = 3;
+
+    private final List<int[]> writes = new ArrayList<>();
+
+    private final StreamStateTable table = new StreamStateTable();
+
+    private final VolumeWriter writer = new VolumeWriter(table, new VolumeWorker(), new VolumeWriter.Sink() {
+        @Override
+        public boolean setVolume(int streamType, int volume, int flags) {
+            synchronized (writes) {
+                writes.add(new int[]{streamType, volume});
+            }
+            return true;
+        }
+
+        @Override
+        public int getMinVolume(int streamType) {
+            return 1;
+        }
+
+        @Override
+        public int getMaxVolume(int streamType) {
+            return 15;
+        }
+    });
+
+    @Test
+    public void burstIsCoalescedIntoLatestValue() {
+        for (int i = 0; i <= 15; i++) {
+            writer.submit(STREAM, i, 0);
+        }
+        assertTrue(writer.flush(1, TimeUnit.SECONDS));
+
+        assertEquals(1, writes.size());
+        assertEquals(15, writes.get(0)[1]);
+        assertFalse(writer.hasPending());
+    }
+
+    @Test
+    public void writeEqualToKnownVolumeIsDropped() {
+        table.setVolume(STREAM, 7);
+        writer.submit(STREAM, 7, 0);
+
+        assertFalse(writer.hasPending());
+        assertTrue(writer.flush(1, TimeUnit.SECONDS));
+        assertEquals(0, writes.size());
+    }
+
+    @Test
+    public void outOfRangeWriteIsClamped() {
+        table.setRange(STREAM, 1, 15);
+        writer.submit(STREAM, 100, 0);
+        assertTrue(writer.flush(1, TimeUnit.SECONDS));
+        writer.submit(STREAM, -5, 0);
+        assertTrue(writer.flush(1, TimeUnit.SECONDS));
+
+        assertEquals(2, writes.size());
+        assertEquals(15, writes.get(0)[1]);
+        assertEquals(1, writes.get(1)[1]);
+    }
+
+    @Test
+    public void externalChangeDisablesDropByLastWrite() {
+        writer.submit(STREAM, 5, 0);
+        assertTrue(writer.flush(1, TimeUnit.SECONDS));
+
+        // 音量被其他地方修改
+        table.setVolume(STREAM, 9);
+        writer.onSystemVolume(STREAM, 9);
+        writer.submit(STREAM, 5, 0);
+        assertTrue(writer.flush(1, TimeUnit.SECONDS));
+
+        assertEquals(2, writes.size());
+        assertEquals(5, writes.get(1)[1]);
+    }
+}
@@ -0,0 +1,502 @@
+package com.ymk.volume;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * 内存中的音频服务
+ * <p>
+ * 在 JVM 上模拟 AudioManager 的行为，用于测试与压力测试：
+ * <ul>
+ * <li>音量超出范围时限制到范围内</li>
+ * <li>音量流别名：手机上系统、通知、拨号音跟随铃声，无障碍跟随媒体，修改其中一个会同时改变整组</li>
+ * <li>静音时查询到的音量为 0，调高音量会解除静音</li>
+ * <li>铃声调到 0 时进入振动模式，从 0 调高时恢复正常模式；静音、振动模式下铃声组静音</li>
+ * <li>没有勿扰权限时不能切换到静音模式</li>
+ * </ul>
+ * 状态改变以与 {@code VolumeChangeObserver} 相同的形式通知 {@link Listener}，同一次操作产生的通知按音量流顺序发出，
+ * 回调在指定的 {@link Executor} 上执行，默认在调用线程直接回调，结果完全确定。
+ * 通知对象循环使用，稳定运行后发出通知不分配对象，不影响压力测试统计的堆内存增长
+ *
+ * @author YMK
+ * @since 2025/12/11
+ */
+public final class FakeAudioBackend implements AudioBackend {
+
+    public static final int RINGER_MODE_SILENT = 0;
+    public static final int RINGER_MODE_VIBRATE = 1;
+    public static final int RINGER_MODE_NORMAL = 2;
+
+    /**
+     * 与 AudioManager.FLAG_ALLOW_RINGER_MODES 相同，音量调到 0 时允许切换响铃模式
+     */
+    public static final int FLAG_ALLOW_RINGER_MODES = 1 << 1;
+
+    /**
+     * 状态改变通知，与系统广播一一对应
+     */
+    public interface Listener {
+
+        /**
+         * VOLUME_CHANGED_ACTION
+         */
+        void onVolumeChanged(int streamType, int value, int preValue);
+
+        /**
+         * STREAM_MUTE_CHANGED_ACTION
+         */
+        void onMuteChanged(int streamType, boolean isMute);
+
+        /**
+         * RINGER_MODE_CHANGED_ACTION
+         */
+        void onRingModeChanged(int ringMode);
+    }
+
+    private static final int EVENT_VOLUME = 0;
+    private static final int EVENT_MUTE = 1;
+    private static final int EVENT_RING_MODE = 2;
+
+    private final int[] minVolumes = new int[StreamStateTable.CAPACITY];
+
+    private final int[] maxVolumes = new int[StreamStateTable.CAPACITY];
+
+    /**
+     * 各音量流的档位，别名组内以组长的档位为准
+     */
+    private final int[] indexes = new int[StreamStateTable.CAPACITY];
+
+    private final boolean[] mutes = new boolean[StreamStateTable.CAPACITY];
+
+    /**
+     * 各音量流的别名，[ streamType ] = 组长
+     */
+    private final int[] aliases = new int[StreamStateTable.CAPACITY];
+
+    private int ringMode = RINGER_MODE_NORMAL;
+
+    private boolean policyAccessGranted = true;
+
+    /**
+     * 写入次数，包括调节、静音、响铃模式
+     */
+    private long writes;
+
+    @Nullable
+    private volatile Listener listener;
+
+    private volatile Executor executor = Runnable::run;
+
+    /**
+     * 本次操作产生的通知，持有锁时追加，离开锁前取出
+     */
+    @Nullable
+    private Event head;
+
+    @Nullable
+    private Event tail;
+
+    /**
+     * 回调完成的通知，循环使用
+     */
+    private final ArrayDeque<Event> pool = new ArrayDeque<>();
+
+    /**
+     * 手机的默认配置：有别名，范围与常见设备一致
+     */
+    public FakeAudioBackend() {
+        this(true);
+    }
+
+    /**
+     * @param voiceCapable 是否按手机配置音量流别名，平板等设备没有别名
+     */
+    public FakeAudioBackend(boolean voiceCapable) {
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            aliases[i] = i;
+            maxVolumes[i] = 15;
+        }
+        setRange(StreamTypes.STREAM_VOICE_CALL, 1, 5);
+        setRange(StreamTypes.STREAM_SYSTEM, 0, 7);
+        setRange(StreamTypes.STREAM_RING, 0, 7);
+        setRange(StreamTypes.STREAM_MUSIC, 0, 15);
+        setRange(StreamTypes.STREAM_ALARM, 1, 7);
+        setRange(StreamTypes.STREAM_NOTIFICATION, 0, 7);
+        setRange(StreamTypes.STREAM_DTMF, 0, 15);
+        setRange(StreamTypes.STREAM_ACCESSIBILITY, 1, 15);
+        if (voiceCapable) {
+            aliases[StreamTypes.STREAM_SYSTEM] = StreamTypes.STREAM_RING;
+            aliases[StreamTypes.STREAM_NOTIFICATION] = StreamTypes.STREAM_RING;
+            aliases[StreamTypes.STREAM_DTMF] = StreamTypes.STREAM_RING;
+        }
+        aliases[StreamTypes.STREAM_ACCESSIBILITY] = StreamTypes.STREAM_MUSIC;
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            indexes[i] = (minVolumes[i] + maxVolumes[i]) / 2;
+        }
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 配置
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 设置状态改变通知，为 null 时不通知
+     */
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 设置通知所在的线程，默认在调用线程直接回调
+     */
+    public void setExecutor(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 设置音量范围，当前音量超出范围时直接限制，不产生通知
+     */
+    public synchronized void setRange(int streamType, int min, int max) {
+        checkStreamType(streamType);
+        minVolumes[streamType] = min;
+        maxVolumes[streamType] = max;
+        indexes[streamType] = clamp(streamType, indexes[streamType]);
+    }
+
+    /**
+     * 是否有勿扰权限，没有时不能切换到静音模式
+     */
+    public synchronized void setPolicyAccessGranted(boolean granted) {
+        policyAccessGranted = granted;
+    }
+
+    /**
+     * 写入次数，包括设置音量、调节、静音以及响铃模式
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * 模拟切换输出设备：所有音量流切换到新设备上的档位
+     * <p>
+     * 每个音量流各产生一次通知，与切换耳机时系统的行为相同
+     *
+     * @param volumes [ streamType ] = 档位，小于 0 的保持不变
+     */
+    public void simulateRouteChange(@NonNull int[] volumes) {
+        Event events;
+        synchronized (this) {
+            for (int i = 0; i < StreamStateTable.CAPACITY && i < volumes.length; i++) {
+                if (volumes[i] >= 0 && aliases[i] == i) {
+                    setIndexLocked(i, volumes[i]);
+                }
+            }
+            events = takeEventsLocked();
+        }
+        emit(events);
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// AudioBackend
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public synchronized int getVolume(int streamType) {
+        checkStreamType(streamType);
+        return isMutedLocked(streamType) ? 0 : indexes[aliases[streamType]];
+    }
+
+    @Override
+    public boolean setVolume(int streamType, int volume, int flags) {
+        checkStreamType(streamType);
+        Event events;
+        synchronized (this) {
+            writes++;
+            applyVolumeLocked(streamType, volume, flags);
+            events = takeEventsLocked();
+        }
+        emit(events);
+        return true;
+    }
+
+    @Override
+    public void adjustVolume(int streamType, boolean isAdd, int flags) {
+        checkStreamType(streamType);
+        Event events;
+        synchronized (this) {
+            writes++;
+            int alias = aliases[streamType];
+            int current = isMutedLocked(streamType) ? 0 : indexes[alias];
+            applyVolumeLocked(streamType, current + (isAdd ? 1 : -1), flags);
+            events = takeEventsLocked();
+        }
+        emit(events);
+    }
+
+    @Override
+    public synchronized int getMinVolume(int streamType) {
+        checkStreamType(streamType);
+        return minVolumes[aliases[streamType]];
+    }
+
+    @Override
+    public synchronized int getMaxVolume(int streamType) {
+        checkStreamType(streamType);
+        return maxVolumes[aliases[streamType]];
+    }
+
+    @Override
+    public synchronized boolean isMute(int streamType) {
+        checkStreamType(streamType);
+        return isMutedLocked(streamType);
+    }
+
+    @Override
+    public boolean setMute(int streamType, boolean isMute, int flags) {
+        checkStreamType(streamType);
+        Event events;
+        synchronized (this) {
+            writes++;
+            setMuteLocked(aliases[streamType], isMute);
+            events = takeEventsLocked();
+        }
+        emit(events);
+        return true;
+    }
+
+    @Override
+    public synchronized int getRingMode() {
+        return ringMode;
+    }
+
+    @Override
+    public boolean setRingMode(int ringMode) {
+        if (ringMode < RINGER_MODE_SILENT || ringMode > RINGER_MODE_NORMAL) {
+            throw new IllegalArgumentException("unsupported ringMode: " + ringMode);
+        }
+        Event events;
+        synchronized (this) {
+            if (RINGER_MODE_SILENT == ringMode && !policyAccessGranted) {
+                return false;
+            }
+            writes++;
+            setRingModeLocked(ringMode);
+            events = takeEventsLocked();
+        }
+        emit(events);
+        return true;
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 模拟
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void applyVolumeLocked(int streamType, int volume, int flags) {
+        int alias = aliases[streamType];
+        volume = clamp(alias, volume);
+        if (StreamTypes.STREAM_RING == alias) {
+            if (0 == volume && 0 != (flags & FLAG_ALLOW_RINGER_MODES) && RINGER_MODE_NORMAL == ringMode) {
+                // 铃声调到 0 进入振动模式 档位保留
+                setRingModeLocked(RINGER_MODE_VIBRATE);
+                return;
+            }
+            if (volume > 0 && RINGER_MODE_NORMAL != ringMode) {
+                if (RINGER_MODE_SILENT == ringMode && !policyAccessGranted) {
+                    return;
+                }
+                setRingModeLocked(RINGER_MODE_NORMAL);
+            }
+        }
+        if (volume > 0 && mutes[alias]) {
+            // 调高音量解除静音
+            setMuteLocked(alias, false);
+        }
+        setIndexLocked(alias, volume);
+    }
+
+    /**
+     * 修改别名组的档位，为组内每个音量流产生通知
+     */
+    private void setIndexLocked(int alias, int volume) {
+        volume = clamp(alias, volume);
+        int previous = indexes[alias];
+        if (previous == volume) {
+            return;
+        }
+        indexes[alias] = volume;
+        if (isMutedLocked(alias)) {
+            // 静音时查询到的音量始终为 0
+            return;
+        }
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            if (aliases[i] == alias) {
+                addEventLocked(EVENT_VOLUME, i, volume, previous);
+            }
+        }
+    }
+
+    private void setMuteLocked(int alias, boolean isMute) {
+        boolean previous = isMutedLocked(alias);
+        mutes[alias] = isMute;
+        boolean current = isMutedLocked(alias);
+        if (previous != current) {
+            notifyMuteLocked(alias, current);
+        }
+    }
+
+    private void setRingModeLocked(int mode) {
+        if (ringMode == mode) {
+            return;
+        }
+        boolean previous = isMutedLocked(StreamTypes.STREAM_RING);
+        ringMode = mode;
+        addEventLocked(EVENT_RING_MODE, mode, 0, 0);
+        if (RINGER_MODE_NORMAL == mode && 0 == indexes[StreamTypes.STREAM_RING]) {
+            // 回到正常模式时铃声至少为 1 档
+            indexes[StreamTypes.STREAM_RING] = Math.max(1, minVolumes[StreamTypes.STREAM_RING]);
+        }
+        boolean current = isMutedLocked(StreamTypes.STREAM_RING);
+        if (previous != current) {
+            notifyMuteLocked(StreamTypes.STREAM_RING, current);
+        }
+    }
+
+    /**
+     * 静音状态改变时，组内每个音量流先通知静音，再通知查询到的音量
+     */
+    private void notifyMuteLocked(int alias, boolean isMute) {
+        int index = indexes[alias];
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            if (aliases[i] != alias) {
+                continue;
+            }
+            addEventLocked(EVENT_MUTE, i, isMute ? 1 : 0, 0);
+            if (0 != index) {
+                if (isMute) {
+                    addEventLocked(EVENT_VOLUME, i, 0, index);
+                } else {
+                    addEventLocked(EVENT_VOLUME, i, index, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * 静音，或者属于铃声组且响铃模式不是正常模式
+     */
+    private boolean isMutedLocked(int streamType) {
+        int alias = aliases[streamType];
+        return mutes[alias] || (StreamTypes.STREAM_RING == alias && RINGER_MODE_NORMAL != ringMode);
+    }
+
+    private int clamp(int alias, int volume) {
+        return Math.max(minVolumes[alias], Math.min(maxVolumes[alias], volume));
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 通知
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void addEventLocked(int type, int arg1, int arg2, int arg3) {
+        Event event;
+        synchronized (pool) {
+            event = pool.poll();
+        }
+        if (null == event) {
+            event = new Event();
+        }
+        event.type = type;
+        event.arg1 = arg1;
+        event.arg2 = arg2;
+        event.arg3 = arg3;
+        if (null == tail) {
+            head = event;
+        } else {
+            tail.next = event;
+        }
+        tail = event;
+    }
+
+    @Nullable
+    private Event takeEventsLocked() {
+        Event events = head;
+        head = null;
+        tail = null;
+        return events;
+    }
+
+    /**
+     * 在锁外按顺序发出通知
+     */
+    private void emit(@Nullable Event events) {
+        Listener l = listener;
+        Executor target = executor;
+        while (null != events) {
+            Event event = events;
+            events = event.next;
+            event.next = null;
+            if (null == l) {
+                event.recycle();
+            } else {
+                event.listener = l;
+                target.execute(event);
+            }
+        }
+    }
+
+    /**
+     * 一次通知，回调完成后回到对象池
+     */
+    private final class Event implements Runnable {
+
+        private int type;
+        private int arg1;
+        private int arg2;
+        private int arg3;
+
+        @Nullable
+        private Listener listener;
+
+        @Nullable
+        private Event next;
+
+        @Override
+        public void run() {
+            Listener l = listener;
+            int type = this.type;
+            int arg1 = this.arg1;
+            int arg2 = this.arg2;
+            int arg3 = this.arg3;
+            // 先回收再回调 回调中再次写入时可以直接复用
+            recycle();
+            switch (type) {
+                case EVENT_VOLUME:
+                    l.onVolumeChanged(arg1, arg2, arg3);
+                    break;
+                case EVENT_MUTE:
+                    l.onMuteChanged(arg1, 1 == arg2);
+                    break;
+                default:
+                    l.onRingModeChanged(arg1);
+                    break;
+            }
+        }
+
+        void recycle() {
+            listener = null;
+            synchronized (pool) {
+                pool.push(this);
+            }
+        }
+    }
+
+    private static void checkStreamType(int streamType) {
+        if (!StreamStateTable.isValid(streamType)) {
+            throw new IllegalArgumentException("unsupported streamType: " + streamType);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ymk.volume;
+
+import android.annotation.SuppressLint;
+import android.media.AudioManager;
+
+import androidx.annotation.NonNull;
+
+import java.util.function.Supplier;
+
+/**
+ * 基于 {@link AudioManager} 的 {@link AudioBackend}
+ * <p>
+ * 每次调用时才获取 AudioManager，初始化之前调用会抛出异常
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+final class AudioManagerBackend implements AudioBackend {
+
+    private final Supplier<AudioManager> manager;
+
+    AudioManagerBackend(@NonNull Supplier<AudioManager> manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public int getVolume(int streamType) {
+        return VolumeUtils.getVolume(manager.get(), streamType);
+    }
+
+    @Override
+    public boolean setVolume(int streamType, int volume, int flags) {
+        return VolumeUtils.trySetVolume(manager.get(), streamType, volume, flags);
+    }
+
+    @Override
+    public void adjustVolume(int streamType, boolean isAdd, int flags) {
+        VolumeUtils.adjustVolume(manager.get(), streamType, isAdd, flags);
+    }
+
+    @Override
+    public int getMinVolume(int streamType) {
+        return VolumeUtils.getMinVolume(manager.get(), streamType);
+    }
+
+    @Override
+    public int getMaxVolume(int streamType) {
+        return VolumeUtils.getMaxVolume(manager.get(), streamType);
+    }
+
+    @Override
+    public boolean isMute(int streamType) {
+        return VolumeUtils.isMute(manager.get(), streamType);
+    }
+
+    @Override
+    public boolean setMute(int streamType, boolean isMute, int flags) {
+        return VolumeUtils.trySetMute(manager.get(), streamType, isMute, flags);
+    }
+
+    @Override
+    public int getRingMode() {
+        return VolumeUtils.getRingMode(manager.get());
+    }
+
+    @SuppressLint("MissingPermission")
+    @Override
+    public boolean setRingMode(int ringMode) {
+        return VolumeUtils.trySetRingMode(manager.get(), ringMode);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ymk.volume;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 按帧分发 UI 状态
+ * <p>
+ * 状态改变只记录每个音量流的最新值，在下一次 vsync 通过 {@link Choreographer} 统一分发，
+ * 每帧每个音量流最多更新一次，长按音量键时界面的工作量不会超过屏幕刷新率。
+ * 记录与调度都基于预先分配的原子数组，不分配对象
+ *
+ * @author YMK
+ * @since 2025/12/12
+ */
+final class FrameDispatcher implements Choreographer.FrameCallback {
+
+    /**
+     * 分发目标，在主线程回调
+     */
+    interface Target {
+
+        void onVolume(int streamType, int value);
+
+        void onMute(int streamType, boolean isMute);
+
+        void onRingMode(int ringMode);
+    }
+
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final Target target;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * 等待分发的音量
+     */
+    private final AtomicIntegerArray volumes = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 等待分发的静音状态 1 / 0
+     */
+    private final AtomicIntegerArray mutes = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    private final AtomicInteger ringMode = new AtomicInteger(NONE);
+
+    /**
+     * 是否已经请求了下一帧
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Choreographer 与线程绑定，只能在主线程获取
+     */
+    private final Runnable scheduleTask = () -> Choreographer.getInstance().postFrameCallback(this);
+
+    private final Runnable flushTask = this::flush;
+
+    private volatile boolean enabled;
+
+    FrameDispatcher(@NonNull Target target) {
+        this.target = target;
+        for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+            volumes.set(i, NONE);
+            mutes.set(i, NONE);
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启或关闭，关闭时立即分发等待中的状态
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            mainHandler.post(flushTask);
+        }
+    }
+
+    void postVolume(int streamType, int value) {
+        if (NONE != volumes.getAndSet(streamType, value)) {
+            VolumeMetrics.count(VolumeMetrics.FRAME_COALESCED);
+        }
+        schedule();
+    }
+
+    void postMute(int streamType, boolean isMute) {
+        if (NONE != mutes.getAndSet(streamType, isMute ? 1 : 0)) {
+            VolumeMetrics.count(VolumeMetrics.FRAME_COALESCED);
+        }
+        schedule();
+    }
+
+    void postRingMode(int mode) {
+        if (NONE != ringMode.getAndSet(mode)) {
+            VolumeMetrics.count(VolumeMetrics.FRAME_COALESCED);
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            scheduleTask.run();
+        } else {
+            mainHandler.post(scheduleTask);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        // 先清除标记 分发期间的改变会请求下一帧
+        scheduled.set(false);
+        flush();
+    }
+
+    /**
+     * 在主线程分发所有等待中的状态
+     */
+    private void flush() {
+        boolean traced = VolumeTrace.beginSection("Volume.frame", -1);
+        try {
+            for (int i = 0; i < StreamStateTable.CAPACITY; i++) {
+                int volume = volumes.getAndSet(i, NONE);
+                if (NONE != volume) {
+                    target.onVolume(i, volume);
+                }
+                int mute = mutes.getAndSet(i, NONE);
+                if (NONE != mute) {
+                    target.onMute(i, 1 == mute);
+                }
+            }
+            int mode = ringMode.getAndSet(NONE);
+            if (NONE != mode) {
+                target.onRingMode(mode);
+            }
+        } finally {
+            VolumeTrace.endSection(traced);
+        }
+    }
+}
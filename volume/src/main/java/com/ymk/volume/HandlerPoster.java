@@ -0,0 +1,34 @@
+package com.ymk.volume;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 通过 {@link Handler} 将基本类型监听切换到指定 Looper
+ * <p>
+ * 使用 {@link Message} 对象池，切换线程时不分配对象
+ *
+ * @author YMK
+ * @since 2025/12/10
+ */
+final class HandlerPoster implements ListenerRegistry.Poster, Handler.Callback {
+
+    private final Handler handler;
+
+    HandlerPoster(@NonNull Looper looper) {
+        handler = new Handler(looper, this);
+    }
+
+    @Override
+    public void post(int what, int arg1, int arg2, Object listener) {
+        handler.obtainMessage(what, arg1, arg2, listener).sendToTarget();
+    }
+
+    @Override
+    public boolean handleMessage(@NonNull Message msg) {
+        return ListenerRegistry.deliver(msg.what, msg.arg1, msg.arg2, msg.obj);
+    }
+}
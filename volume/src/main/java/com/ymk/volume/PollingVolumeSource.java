@@ -0,0 +1,110 @@
+package com.ymk.volume;
+
+import android.content.Context;
+import android.os.Handler;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 自适应轮询感知改变
+ * <p>
+ * 没有改变时轮询间隔从 {@link #MIN_INTERVAL_MS} 逐次翻倍到 {@link #MAX_INTERVAL_MS}，
+ * 检测到改变后恢复为最短间隔，用户连续调节时保持灵敏，静止时几乎不占用 CPU
+ *
+ * @author YMK
+ * @since 2025/12/06
+ */
+final class PollingVolumeSource extends QueryingVolumeSource {
+
+    static final long MIN_INTERVAL_MS = 100L;
+
+    static final long MAX_INTERVAL_MS = 3_200L;
+
+    /**
+     * 当前的轮询，每次启动重新创建
+     */
+    @Nullable
+    private Poller poller;
+
+    @Override
+    void onStart(@NonNull Context context) {
+        Session session = session();
+        Handler h = handler;
+        if (null == session || null == h) {
+            return;
+        }
+        poller = new Poller(session::query, h::postDelayed);
+        h.post(poller);
+    }
+
+    @Override
+    void onStop(@NonNull Context context) {
+        Poller p = poller;
+        poller = null;
+        if (null != p) {
+            p.cancel();
+            handler.removeCallbacks(p);
+        }
+    }
+
+    /**
+     * 下一次轮询间隔
+     */
+    static long nextInterval(long interval, boolean changed) {
+        return changed ? MIN_INTERVAL_MS : Math.min(interval * 2, MAX_INTERVAL_MS);
+    }
+
+    /**
+     * 投递延迟任务，与 {@link Handler#postDelayed(Runnable, long)} 相同
+     */
+    interface Scheduler {
+
+        void postDelayed(@NonNull Runnable task, long delayMillis);
+    }
+
+    /**
+     * 一次启动的轮询
+     * <p>
+     * 在查询线程执行，取消后不再查询也不再投递下一次轮询；
+     * stop 在其他线程移除任务时，正在执行的轮询可能已经越过检查并投递，下一次执行时直接结束
+     */
+    static final class Poller implements Runnable {
+
+        private final BooleanSupplier query;
+
+        private final Scheduler scheduler;
+
+        private long interval = MIN_INTERVAL_MS;
+
+        private volatile boolean running = true;
+
+        Poller(@NonNull BooleanSupplier query, @NonNull Scheduler scheduler) {
+            this.query = query;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void run() {
+            if (!running) {
+                return;
+            }
+            interval = nextInterval(interval, query.getAsBoolean());
+            if (running) {
+                scheduler.postDelayed(this, interval);
+            }
+        }
+
+        void cancel() {
+            running = false;
+        }
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return POLLING;
+    }
+}
@@ -0,0 +1,178 @@
+package com.ymk.volume;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * 通过主动查询系统状态感知改变的来源
+ * <p>
+ * 查询在 scheduler 或自己的后台线程执行，只上报与上一次查询不同的状态
+ *
+ * @author YMK
+ * @since 2025/12/06
+ */
+abstract class QueryingVolumeSource implements VolumeSource {
+
+    private static final String THREAD_NAME = "Volume-Source";
+
+    /**
+     * 自己创建的查询线程，使用外部 scheduler 时为 null
+     */
+    private HandlerThread thread;
+
+    /**
+     * 查询线程
+     * <p>
+     * 在查询线程读取，start、stop 在其他线程修改
+     */
+    volatile Handler handler;
+
+    /**
+     * 本次启动的查询状态，停止后为 null
+     * <p>
+     * 每次启动重新创建，上一次启动遗留的任务只会使用自己的状态，不会影响新的基准
+     */
+    @Nullable
+    private volatile Session session;
+
+    @Override
+    public final synchronized void start(@NonNull Context context, @Nullable Handler scheduler,
+                                         @NonNull Callback callback) {
+        if (null != session) {
+            return;
+        }
+        AudioManager manager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        if (null == scheduler) {
+            thread = new HandlerThread(THREAD_NAME, Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        } else {
+            handler = scheduler;
+        }
+        session = new Session(manager, callback);
+        onStart(context);
+    }
+
+    @Override
+    public final synchronized void stop(@NonNull Context context) {
+        Session s = session;
+        if (null == s) {
+            return;
+        }
+        // 先停止状态 正在执行的查询不再上报 之后投递的任务也不会再查询
+        s.stopped = true;
+        session = null;
+        onStop(context);
+        if (null != thread) {
+            thread.quitSafely();
+            thread = null;
+        }
+        handler = null;
+    }
+
+    /**
+     * 开始，在 {@link #handler} 创建之后调用
+     */
+    abstract void onStart(@NonNull Context context);
+
+    /**
+     * 停止，需要移除投递到 {@link #handler} 的任务（scheduler 可能与其他地方共用）
+     * <p>
+     * 在调用方线程执行，查询线程上可能有正在执行的任务，任务需要自己检查是否已经停止
+     */
+    abstract void onStop(@NonNull Context context);
+
+    /**
+     * 本次启动的查询状态，停止后为 null
+     */
+    @Nullable
+    final Session session() {
+        return session;
+    }
+
+    /**
+     * 使用本次启动的状态查询，在查询线程调用
+     *
+     * @return 是否有改变
+     */
+    final boolean query() {
+        Session s = session;
+        return null != s && s.query();
+    }
+
+    /**
+     * 一次启动的查询状态：回调与上一次查询到的基准
+     */
+    static final class Session {
+
+        private final AudioManager manager;
+
+        private final Callback callback;
+
+        private final int[] volumes = new int[StreamStateTable.CAPACITY];
+
+        private final int[] mutes = new int[StreamStateTable.CAPACITY];
+
+        private int ringMode = StreamStateTable.UNKNOWN;
+
+        volatile boolean stopped;
+
+        Session(AudioManager manager, Callback callback) {
+            this.manager = manager;
+            this.callback = callback;
+            Arrays.fill(volumes, StreamStateTable.UNKNOWN);
+            Arrays.fill(mutes, StreamStateTable.UNKNOWN);
+        }
+
+        /**
+         * 查询所有状态并上报改变，在查询线程调用
+         *
+         * @return 是否有改变
+         */
+        boolean query() {
+            Callback cb = callback;
+            AudioManager am = manager;
+            if (stopped || null == am) {
+                return false;
+            }
+            boolean changed = false;
+            for (int streamType : VolumeUtils.STREAM_TYPES) {
+                int volume = VolumeUtils.getVolume(am, streamType);
+                if (stopped) {
+                    return changed;
+                }
+                if (volume != volumes[streamType]) {
+                    boolean traced = VolumeTrace.beginReceive("Volume.query", streamType);
+                    try {
+                        cb.onVolumeChanged(streamType, volume, volumes[streamType]);
+                    } finally {
+                        VolumeTrace.endSection(traced);
+                    }
+                    volumes[streamType] = volume;
+                    changed = true;
+                }
+                int mute = VolumeUtils.isMute(am, streamType) ? 1 : 0;
+                if (mute != mutes[streamType]) {
+                    cb.onMuteChanged(streamType, 1 == mute);
+                    mutes[streamType] = mute;
+                    changed = true;
+                }
+            }
+            int mode = VolumeUtils.getRingMode(am);
+            if (!stopped && mode != ringMode) {
+                cb.onRingModeChanged(mode);
+                ringMode = mode;
+                changed = true;
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ymk.volume;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Handler;
+import android.provider.Settings;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 监听 Settings 数据库感知改变
+ * <p>
+ * 音量保存在 Settings.System（volume_music_speaker 等），响铃模式保存在 Settings.Global。
+ * 一次改变可能写入多个键，查询任务在查询线程上合并执行
+ *
+ * @author YMK
+ * @since 2025/12/06
+ */
+final class SettingsVolumeSource extends QueryingVolumeSource {
+
+    private ContentObserver observer;
+
+    private final Runnable queryTask = this::query;
+
+    @Override
+    void onStart(@NonNull Context context) {
+        observer = new ContentObserver(handler) {
+            @Override
+            public void onChange(boolean selfChange, Uri uri) {
+                // 合并同一时刻的多次写入
+                Handler h = handler;
+                if (null != h) {
+                    h.removeCallbacks(queryTask);
+                    h.post(queryTask);
+                }
+            }
+        };
+        context.getContentResolver().registerContentObserver(Settings.System.CONTENT_URI, true, observer);
+        context.getContentResolver().registerContentObserver(
+                Settings.Global.getUriFor(Settings.Global.MODE_RINGER), false, observer);
+        handler.post(queryTask);
+    }
+
+    @Override
+    void onStop(@NonNull Context context) {
+        context.getContentResolver().unregisterContentObserver(observer);
+        observer = null;
+        handler.removeCallbacks(queryTask);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return SETTINGS;
+    }
+}
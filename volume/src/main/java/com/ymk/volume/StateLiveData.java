@@ -0,0 +1,108 @@
+package com.ymk.volume;
+
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 感知观察者的状态 LiveData
+ * <p>
+ * 有活跃观察者时通知 {@link Volume} 开始接收系统广播，没有时通知停止。
+ * 同时记录被合并的 postValue 与音量从收到到分发的延迟，见 {@link VolumeMetrics} 与 {@link VolumeTrace}
+ *
+ * @author YMK
+ * @since 2025/12/04
+ */
+final class StateLiveData<T> extends MutableLiveData<T> {
+
+    /**
+     * 活跃状态回调
+     */
+    interface ActiveCallback {
+
+        /**
+         * 第一个活跃观察者出现
+         */
+        void onActive();
+
+        /**
+         * 最后一个活跃观察者消失
+         */
+        void onInactive();
+    }
+
+    private final ActiveCallback callback;
+
+    /**
+     * 对应的音量流，不是音量 LiveData 时为 -1
+     */
+    private final int streamType;
+
+    /**
+     * 是否有尚未分发的 postValue
+     */
+    private final AtomicBoolean posting = new AtomicBoolean();
+
+    /**
+     * 没有初始值，由之后的同步设置
+     */
+    StateLiveData(ActiveCallback callback) {
+        this(callback, -1);
+    }
+
+    StateLiveData(T value, ActiveCallback callback) {
+        this(value, callback, -1);
+    }
+
+    /**
+     * 没有初始值，由之后的同步设置
+     */
+    StateLiveData(ActiveCallback callback, int streamType) {
+        super();
+        this.callback = callback;
+        this.streamType = streamType;
+    }
+
+    StateLiveData(T value, ActiveCallback callback, int streamType) {
+        super(value);
+        this.callback = callback;
+        this.streamType = streamType;
+    }
+
+    @Override
+    public void postValue(T value) {
+        VolumeMetrics.count(VolumeMetrics.POST_VALUE);
+        if (posting.getAndSet(true)) {
+            // 上一次 postValue 还没有分发 会被这一次覆盖
+            VolumeMetrics.count(VolumeMetrics.POST_VALUE_DROPPED);
+        } else {
+            VolumeTrace.onPost(streamType);
+        }
+        super.postValue(value);
+    }
+
+    @Override
+    public void setValue(T value) {
+        boolean wasPosted = posting.getAndSet(false);
+        boolean traced = VolumeTrace.beginSection("Volume.dispatch", streamType);
+        try {
+            super.setValue(value);
+        } finally {
+            VolumeTrace.endSection(traced);
+        }
+        if (streamType >= 0) {
+            VolumeMetrics.onDispatched(streamType);
+            VolumeTrace.onDispatch(streamType, wasPosted);
+        }
+    }
+
+    @Override
+    protected void onActive() {
+        callback.onActive();
+    }
+
+    @Override
+    protected void onInactive() {
+        callback.onInactive();
+    }
+}
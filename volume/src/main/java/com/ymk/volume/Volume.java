@@ -1,20 +1,45 @@
 package com.ymk.volume;
 
 import android.Manifest;
+import android.annotation.SuppressLint;
 import android.content.Context;
+import android.media.AudioDeviceCallback;
+import android.media.AudioDeviceInfo;
 import android.media.AudioManager;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RequiresPermission;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ProcessLifecycleOwner;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * @author YMK
@@ -22,9 +47,21 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class Volume {
 
-    private Context mContext;
+    private volatile Context mContext;
 
-    private AudioManager mAudioManager;
+    private volatile AudioManager mAudioManager;
+
+    /**
+     * 接收系统广播的后台线程
+     * <p>
+     * 为 null 时在主线程接收广播
+     */
+    private HandlerThread receiverThread;
+
+    /**
+     * 主线程 用于异步接口的回调
+     */
+    private final Executor mainExecutor = new Handler(Looper.getMainLooper())::post;
 
     /// ////////////////////////////////////////////////////////////////////////////////////////////
     /// 单例
@@ -53,334 +90,2166 @@ public class Volume {
     /// ////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * 音量工具类 Map 初始化大小，根据音量 STREAM 设置
+     * 与平台无关的状态表、写入管线与监听分发
+     * <p>
+     * 状态真正改变时由这里通知 LiveData
+     */
+    private final VolumeCore core = new VolumeCore(new AudioManagerBackend(this::audioMgr), new VolumeCore.Publisher() {
+        @Override
+        public void onVolume(int streamType, int value) {
+            postVolumeState(streamType, value);
+        }
+
+        @Override
+        public void onMute(int streamType, boolean isMute) {
+            postMuteState(streamType, isMute);
+        }
+
+        @Override
+        public void onRingMode(int ringMode) {
+            postRingModeState(ringMode);
+        }
+    });
+
+    /**
+     * 按帧分发 LiveData，开启后每帧每个音量流最多更新一次
      */
-    private static final int MAP_INIT_SIZE = 15;
+    private final FrameDispatcher frameDispatcher = new FrameDispatcher(new FrameDispatcher.Target() {
+        @Override
+        public void onVolume(int streamType, int value) {
+            MutableLiveData<Integer> stateLd = volumeStates.get(streamType);
+            if (null != stateLd) {
+                stateLd.setValue(value);
+            }
+        }
+
+        @Override
+        public void onMute(int streamType, boolean isMute) {
+            MutableLiveData<Boolean> muteLv = muteStates.get(streamType);
+            if (null != muteLv) {
+                muteLv.setValue(isMute);
+            }
+        }
+
+        @Override
+        public void onRingMode(int ringMode) {
+            MutableLiveData<Integer> ringModeLv = ringModeState;
+            if (null != ringModeLv) {
+                ringModeLv.setValue(ringMode);
+            }
+        }
+    });
+
+    /**
+     * 音量、静音状态表
+     * <p>
+     * 以 streamType 为下标的基本类型状态，广播接收、查询时不需要装箱和 Hash
+     */
+    private final StreamStateTable stateTable = core.getStateTable();
 
     /**
      * 音量状态管理
      * <p>
-     * 集合结构：Map< streamType, stateLiveData >
+     * 数组结构：[ streamType ] = stateLiveData
      */
-    private ConcurrentHashMap<Integer, MutableLiveData<Integer>> volumeStateMap;
+    private final AtomicReferenceArray<MutableLiveData<Integer>> volumeStates =
+            new AtomicReferenceArray<>(StreamStateTable.CAPACITY);
 
     /**
      * 系统响铃模式
      */
-    private MutableLiveData<Integer> ringModeState;
+    private volatile MutableLiveData<Integer> ringModeState;
 
     /**
      * 静音状态管理
      * <p>
-     * 集合结构：Map< streamType, muteState >
+     * 数组结构：[ streamType ] = muteState
      */
-    private ConcurrentHashMap<Integer, MutableLiveData<Boolean>> muteStateMap;
+    private final AtomicReferenceArray<MutableLiveData<Boolean>> muteStates =
+            new AtomicReferenceArray<>(StreamStateTable.CAPACITY);
+
+    /**
+     * 最近一次发布的状态快照
+     */
+    private volatile VolumeSnapshot snapshot;
 
     /// ////////////////////////////////////////////////////////////////////////////////////////////
-    /// 事件
+    /// 写入
     /// ////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * 音量改变
+     * 逆初始化时等待音量写入完成的最长时间
      */
-    void onVolumeChanged(final int streamType, final int value, final int preValue) {
-        ConcurrentHashMap<Integer, MutableLiveData<Integer>> stateMap = getStateMap();
-        MutableLiveData<Integer> stateLd = stateMap.get(streamType);
-        if (null == stateLd) {
-            return;
-        }
-        stateLd.postValue(value);
-    }
+    private static final long EXIT_FLUSH_TIMEOUT_MS = 200L;
 
     /**
-     * 静音状态改变
+     * 工作线程
      */
-    void onMuteChanged(final int streamType, boolean isMute) {
-        ConcurrentHashMap<Integer, MutableLiveData<Boolean>> muteMap = getMuteStateMap();
-        MutableLiveData<Boolean> muteLv = muteMap.get(streamType);
-        if (null != muteLv) {
-            muteLv.postValue(isMute);
-        }
+    private final VolumeWorker worker = core.getWorker();
+
+    /**
+     * 音量写入管线
+     */
+    private final VolumeWriter volumeWriter = core.getVolumeWriter();
+
+    /**
+     * 音量渐变
+     */
+    private final RampEngine rampEngine = core.getRampEngine();
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 映射
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 百分比、分贝映射表
+     */
+    private final VolumeMapper volumeMapper = new VolumeMapper();
+
+    /**
+     * 获取百分比映射表
+     */
+    private VolumeMapper.PercentTable percentTable(int streamType) {
+        checkStreamType(streamType);
+        return volumeMapper.percentTable(streamType, getMinVolume(streamType), getMaxVolume(streamType));
     }
 
     /**
-     * 响铃模式改变
+     * 获取分贝映射表 没有构建时在调用方线程构建
+     * <p>
+     * 映射表是原子替换的 不必排在写入之后等待工作线程
      */
-    void onRingModeChanged(final int ringMode) {
-        if (null == ringModeState) {
-            return;
+    private VolumeMapper.DbTable dbTable(final int streamType) {
+        checkStreamType(streamType);
+        final int min = getMinVolume(streamType);
+        final int max = getMaxVolume(streamType);
+        VolumeMapper.DbTable table = volumeMapper.dbTable(streamType, min, max);
+        if (null != table) {
+            return table;
         }
-        ringModeState.postValue(ringMode);
+        final AudioManager manager = audioMgr();
+        return volumeMapper.buildDbTable(streamType, min, max,
+                VolumeUtils.getActiveOutputDeviceType(manager),
+                (stream, index, deviceType) -> VolumeUtils.getVolumeDb(manager, stream, index, deviceType));
     }
 
     /// ////////////////////////////////////////////////////////////////////////////////////////////
-    /// 方法
+    /// 预加载
     /// ////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * 获取 AudioManager
+     * 当前输出设备标识
+     * <p>
+     * 只在工作线程读写
      */
-    private AudioManager audioMgr() {
-        if (null == mContext) {
-            throw new UnsupportedOperationException("u need to initialize first~");
+    private int outputDevicesKey = 0;
+
+    /**
+     * 各输出设备上最后一次的音量与范围，只在工作线程访问
+     */
+    private final Map<String, StreamStateTable.DeviceState> deviceStates =
+            new LinkedHashMap<String, StreamStateTable.DeviceState>(MAX_DEVICE_STATES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, StreamStateTable.DeviceState> eldest) {
+                    return size() > MAX_DEVICE_STATES;
+                }
+            };
+
+    /**
+     * 最多记录的输出设备数量
+     */
+    private static final int MAX_DEVICE_STATES = 8;
+
+    /**
+     * 当前输出设备，只在工作线程访问
+     */
+    private String activeDevice;
+
+    /**
+     * 预加载音量范围、音量、静音状态和响铃模式
+     * <p>
+     * 在工作线程执行，之后主线程读取这些状态时不再需要 Binder 调用
+     */
+    private final Runnable prefetchTask = () -> {
+        AudioManager manager = mAudioManager;
+        if (null == manager) {
+            return;
         }
-        if (null == mAudioManager) {
-            mAudioManager = (AudioManager) mContext.getSystemService(Context.AUDIO_SERVICE);
+        outputDevicesKey = VolumeUtils.getOutputDevicesKey(manager);
+        if (null == activeDevice) {
+            activeDevice = VolumeUtils.getDeviceKey(VolumeUtils.getActiveOutputDevice(manager));
         }
-        return mAudioManager;
-    }
+        for (int streamType : VolumeUtils.STREAM_TYPES) {
+            stateTable.setRange(streamType,
+                    VolumeUtils.getMinVolume(manager, streamType),
+                    VolumeUtils.getMaxVolume(manager, streamType));
+        }
+        resync(manager);
+    };
 
     /**
-     * 获取存储音量状态的 Map
+     * 重新同步
+     * <p>
+     * 在工作线程先一次查询所有音量流的音量、静音状态以及响铃模式，再与状态表逐项比较，
+     * 只有不同的记录会更新 LiveData 与监听，改变事件合并为一次回调。
+     * 状态表过期时比较的是过期前的记录，停止接收期间没有改变的状态不会产生任何通知
+     *
+     * @return 改变的记录数量
      */
-    private ConcurrentHashMap<Integer, MutableLiveData<Integer>> getStateMap() {
-        if (null == volumeStateMap) {
-            volumeStateMap = new ConcurrentHashMap<>(MAP_INIT_SIZE);
+    private int resync(AudioManager manager) {
+        final int[] streamTypes = VolumeUtils.STREAM_TYPES;
+        int[] versions = new int[streamTypes.length];
+        int[] volumes = new int[streamTypes.length];
+        boolean[] mutes = new boolean[streamTypes.length];
+        for (int i = 0; i < streamTypes.length; i++) {
+            versions[i] = stateTable.version(streamTypes[i]);
+            volumes[i] = VolumeUtils.getVolume(manager, streamTypes[i]);
+            mutes[i] = VolumeUtils.isMute(manager, streamTypes[i]);
+        }
+        int ringMode = VolumeUtils.getRingMode(manager);
+
+        int changed = 0;
+        List<VolumeChangeEvent> events = changeListeners.isEmpty() ? null : new ArrayList<>();
+        for (int i = 0; i < streamTypes.length; i++) {
+            int streamType = streamTypes[i];
+            if (stateTable.version(streamType) != versions[i]) {
+                // 查询期间收到了广播 广播的值更新
+                continue;
+            }
+            int oldValue = publishVolume(streamType, volumes[i]);
+            if (oldValue != volumes[i]) {
+                changed++;
+                if (null != events) {
+                    events.add(new VolumeChangeEvent(VolumeChangeEvent.TYPE_VOLUME, streamType,
+                            oldValue, volumes[i], VolumeChangeEvent.SOURCE_SYNC));
+                }
+            }
+            int mute = mutes[i] ? 1 : 0;
+            oldValue = publishMute(streamType, mutes[i]);
+            if (oldValue != mute) {
+                changed++;
+                if (null != events) {
+                    events.add(new VolumeChangeEvent(VolumeChangeEvent.TYPE_MUTE, streamType,
+                            oldValue, mute, VolumeChangeEvent.SOURCE_SYNC));
+                }
+            }
+        }
+        int oldRingMode = publishRingMode(ringMode);
+        if (oldRingMode != ringMode) {
+            changed++;
+            if (null != events) {
+                events.add(new VolumeChangeEvent(VolumeChangeEvent.TYPE_RING_MODE, VolumeChangeEvent.NO_STREAM,
+                        oldRingMode, ringMode, VolumeChangeEvent.SOURCE_SYNC));
+            }
         }
-        return volumeStateMap;
+        if (null != events) {
+            dispatchChanges(events);
+        }
+        return changed;
     }
 
     /**
-     * 获取存储响铃状态的 MutableLiveData
+     * 输出设备改变时 音量范围和各音量流的音量都可能改变 重新预加载
      */
-    private MutableLiveData<Integer> getRingModeLv() {
-        if (null == ringModeState) {
-            ringModeState = new MutableLiveData<>(VolumeUtils.getRingMode(audioMgr()));
+    private final Runnable outputDevicesChangedTask = () -> {
+        AudioManager manager = mAudioManager;
+        if (null == manager || outputDevicesKey == VolumeUtils.getOutputDevicesKey(manager)) {
+            return;
+        }
+        volumeMapper.invalidateDb();
+        String device = VolumeUtils.getDeviceKey(VolumeUtils.getActiveOutputDevice(manager));
+        if (!device.equals(activeDevice)) {
+            switchDevice(device);
+        }
+        // 后台校正 只有与状态表不同的记录会产生通知
+        prefetchTask.run();
+    };
+
+    /**
+     * 切换输出设备
+     * <p>
+     * 保存当前设备的音量与范围；新设备有记录时一次切换到该记录，发布一次快照并合并通知，
+     * 之后的重新同步只校正与记录不同的音量；没有记录时保留当前音量等待校正，只清除范围
+     */
+    private void switchDevice(String device) {
+        if (null != activeDevice) {
+            deviceStates.put(activeDevice, stateTable.exportDevice());
+        }
+        activeDevice = device;
+        StreamStateTable.DeviceState cached = deviceStates.get(device);
+        if (null == cached) {
+            stateTable.clearRanges();
+            return;
+        }
+
+        int[] previous = new int[StreamStateTable.CAPACITY];
+        stateTable.restoreDevice(cached, previous);
+        snapshot = stateTable.snapshot();
+
+        List<VolumeChangeEvent> events = changeListeners.isEmpty() ? null : new ArrayList<>();
+        for (int streamType = 0; streamType < StreamStateTable.CAPACITY; streamType++) {
+            int value = snapshot.getVolume(streamType);
+            if (StreamStateTable.UNKNOWN == value || value == previous[streamType]) {
+                continue;
+            }
+            volumeWriter.onSystemVolume(streamType, value);
+            rampEngine.onSystemVolume(streamType, value);
+            postVolumeState(streamType, value);
+            listenerRegistry.dispatchVolume(streamType, value);
+            if (null != events) {
+                events.add(new VolumeChangeEvent(VolumeChangeEvent.TYPE_VOLUME, streamType,
+                        previous[streamType], value, VolumeChangeEvent.SOURCE_SYNC));
+            }
+        }
+        if (null != events) {
+            dispatchChanges(events);
         }
-        return ringModeState;
     }
 
     /**
-     * 获取存储静音状态的 Map
+     * 输出设备监听
      */
-    private ConcurrentHashMap<Integer, MutableLiveData<Boolean>> getMuteStateMap() {
-        if (null == muteStateMap) {
-            muteStateMap = new ConcurrentHashMap<>(MAP_INIT_SIZE);
+    private final AudioDeviceCallback deviceCallback = new AudioDeviceCallback() {
+        @Override
+        public void onAudioDevicesAdded(AudioDeviceInfo[] addedDevices) {
+            worker.execute(outputDevicesChangedTask);
         }
-        return muteStateMap;
+
+        @Override
+        public void onAudioDevicesRemoved(AudioDeviceInfo[] removedDevices) {
+            worker.execute(outputDevicesChangedTask);
+        }
+    };
+
+    /**
+     * 在工作线程加载音量范围
+     */
+    private void loadRange(int streamType) {
+        core.loadRange(streamType);
     }
 
     /// ////////////////////////////////////////////////////////////////////////////////////////////
-    /// 开放接口
+    /// 接收
     /// ////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * 初始化
+     * 最后一个观察者消失后 延迟注销广播的时间
      * <p>
-     * 在这一步会注册系统音量改变监听
+     * 页面切换、屏幕旋转时观察者会短暂消失，避免反复注销、注册
      */
-    public void init(Context context) {
-        this.mContext = context;
+    private static final long RECEIVER_GRACE_PERIOD_MS = 5_000L;
 
-        // 注册音量改变监听
-        VolumeChangeObserver.getInstance().init(mContext);
-    }
+    /**
+     * 接收广播的线程，为 null 时在主线程接收
+     */
+    private volatile Handler receiverScheduler;
 
     /**
-     * 逆初始化
+     * 有活跃观察者的 LiveData 数量
      */
-    public void exit() {
+    private final AtomicInteger activeStates = new AtomicInteger();
 
-        // 注销音量改变监听
-        VolumeChangeObserver.getInstance().exit(mContext);
+    private final Object receiverLock = new Object();
 
-        this.mContext = null;
-        this.mAudioManager = null;
-    }
+    /**
+     * 状态改变来源，默认为系统广播
+     */
+    private VolumeSource volumeSource = VolumeSource.broadcast();
 
     /**
-     * 注册
+     * 是否已启动状态改变来源
+     */
+    private boolean receiverRegistered;
+
+    /**
+     * 状态表被标记为过期的次数，需持有 receiverLock
      * <p>
-     * 工具类内部根据生命周期，自行完成 {@link #init(Context)} 和 {@link #exit()} 方法
-     *
-     * @deprecated 只适合在单个 Activity 中使用的情况
+     * 初始化的预加载只在期间没有再次过期时清除过期标记
      */
-    @Deprecated
-    public void register(@NonNull AppCompatActivity activity) {
-        init(activity);
-        activity.getLifecycle().addObserver(new DefaultLifecycleObserver() {
-            @Override
-            public void onDestroy(@NonNull LifecycleOwner owner) {
-                exit();
-            }
-        });
-    }
+    private int staleMarks;
 
     /**
-     * 获取音量状态监听
+     * 接收状态改变来源的回调
      */
-    @NonNull
-    public LiveData<Integer> stateOf(int streamType) {
-        ConcurrentHashMap<Integer, MutableLiveData<Integer>> stateMap = getStateMap();
-        MutableLiveData<Integer> stateLv = stateMap.get(streamType);
-        if (null == stateLv) {
-            stateLv = new MutableLiveData<>(VolumeUtils.getVolume(audioMgr(), streamType));
-            stateMap.put(streamType, stateLv);
+    private final VolumeSource.Callback sourceCallback = new VolumeSource.Callback() {
+        @Override
+        public void onVolumeChanged(int streamType, int value, int preValue) {
+            VolumeMetrics.onReceived(streamType);
+            Volume.this.onVolumeChanged(streamType, value, preValue);
         }
-        return stateLv;
-    }
+
+        @Override
+        public void onMuteChanged(int streamType, boolean isMute) {
+            Volume.this.onMuteChanged(streamType, isMute);
+        }
+
+        @Override
+        public void onRingModeChanged(int ringMode) {
+            Volume.this.onRingModeChanged(ringMode);
+        }
+    };
 
     /**
-     * 根据 streamType 获取当前音量
-     * <p>
-     * 默认返回 LiveData 中的音量状态
-     * 如果 LiveData 没有被监听初始化，则查询系统音量
+     * 等待执行的延迟注销
      */
-    public int getVolume(int streamType) {
-        MutableLiveData<Integer> stateLv = getStateMap().get(streamType);
-        if (null == stateLv || null == stateLv.getValue()) {
-            return VolumeUtils.getVolume(audioMgr(), streamType);
-        } else {
-            return stateLv.getValue();
+    private ScheduledFuture<?> pendingUnregister;
+
+    private final StateLiveData.ActiveCallback activeCallback = new StateLiveData.ActiveCallback() {
+        @Override
+        public void onActive() {
+            activeStates.incrementAndGet();
+            updateReceiver();
         }
-    }
+
+        @Override
+        public void onInactive() {
+            activeStates.decrementAndGet();
+            updateReceiver();
+        }
+    };
+
+    private final Runnable unregisterTask = () -> {
+        synchronized (receiverLock) {
+            pendingUnregister = null;
+            if (receiverRegistered && !shouldReceive()) {
+                unregisterReceiver();
+            }
+        }
+    };
 
     /**
-     * 设置音量到指定 streamType
-     *
-     * @param volume 当 volume 超过最大值时，不会抛出异常，而是最大化音量。低于最小值时同理
-     * @param flags  参考：
-     *               <ul>
-     *               <li>{@link AudioManager#FLAG_SHOW_UI}</li>
-     *               <li>{@link AudioManager#FLAG_ALLOW_RINGER_MODES}</li>
-     *               <li>{@link AudioManager#FLAG_PLAY_SOUND}</li>
-     *               <li>{@link AudioManager#FLAG_REMOVE_SOUND_AND_VIBRATE}</li>
-     *               <li>{@link AudioManager#FLAG_VIBRATE}</li>
-     *               </ul>
+     * 初始化时标记过期的次数，参考 {@link #staleMarks}，需持有 receiverLock
      */
-    public void setVolume(int streamType, int volume, int flags) {
-        VolumeUtils.setVolume(audioMgr(), streamType, volume, flags);
-    }
+    private int initStaleMark;
 
     /**
-     * 模拟按键调节音量
-     *
-     * @param flag 参考：
-     *             <ul>
-     *             <li>{@link AudioManager#FLAG_SHOW_UI}</li>
-     *             <li>{@link AudioManager#FLAG_ALLOW_RINGER_MODES}</li>
-     *             <li>{@link AudioManager#FLAG_PLAY_SOUND}</li>
-     *             <li>{@link AudioManager#FLAG_REMOVE_SOUND_AND_VIBRATE}</li>
-     *             <li>{@link AudioManager#FLAG_VIBRATE}</li>
-     *             </ul>
+     * 初始化时的预加载
+     * <p>
+     * 预加载读到的是一致的状态，完成后清除初始化时的过期标记。
+     * 注册广播之前读到的是预加载时的状态，期间的改变由注册后的重新同步校正；
+     * 预加载期间停止过接收（再次过期）时保留过期标记
      */
-    public void adjustVolume(int streamType, boolean isAdd, int flag) {
-        try {
-            audioMgr().adjustStreamVolume(streamType, isAdd ? AudioManager.ADJUST_RAISE : AudioManager.ADJUST_LOWER, flag);
-        } catch (RuntimeException e) {
-            e.printStackTrace();
+    private final Runnable initPrefetchTask = () -> {
+        prefetchTask.run();
+        synchronized (receiverLock) {
+            if (null != mContext && initStaleMark == staleMarks) {
+                stateTable.setStale(false);
+            }
         }
-    }
+    };
 
     /**
-     * 模拟按键调节音量
+     * 重新注册后同步停止接收期间错过的改变（包括回到前台），只有与状态表不同的记录会产生事件
      */
-    public void adjustVolume(int streamType, boolean isAdd) {
-        adjustVolume(streamType, isAdd, 0);
-    }
+    private final Runnable resyncTask = () -> {
+        prefetchTask.run();
+        synchronized (receiverLock) {
+            if (receiverRegistered) {
+                stateTable.setStale(false);
+            }
+        }
+    };
 
     /**
-     * 返回指定 streamType 的最大值
+     * 是否有观察者
+     * <p>
+     * 包括有活跃观察者的 LiveData 以及所有监听
      */
-    public int getMaxVolume(int streamType) {
-        return VolumeUtils.getMaxVolume(audioMgr(), streamType);
+    private boolean hasObservers() {
+        return activeStates.get() > 0 || !changeListeners.isEmpty() || !listenerRegistry.isEmpty();
     }
 
     /**
-     * 返回指定 streamType 的最小值
+     * 是否需要接收广播
      */
-    @RequiresApi(api = Build.VERSION_CODES.P)
-    public int getMinVolume(int streamType) {
-        return VolumeUtils.getMinVolume(audioMgr(), streamType);
+    private boolean shouldReceive() {
+        return !inBackground && hasObservers();
     }
 
     /**
-     * 获取系统响铃模式状态监听
+     * 根据是否有观察者注册或延迟注销广播
      */
-    public LiveData<Integer> ringMode() {
-        return getRingModeLv();
+    private void updateReceiver() {
+        synchronized (receiverLock) {
+            if (null == mContext) {
+                return;
+            }
+            if (shouldReceive()) {
+                if (null != pendingUnregister) {
+                    pendingUnregister.cancel(false);
+                    pendingUnregister = null;
+                }
+                if (!receiverRegistered) {
+                    registerReceiver();
+                }
+            } else if (inBackground) {
+                // ProcessLifecycleOwner 已经延迟分发了 onStop 这里直接注销
+                if (null != pendingUnregister) {
+                    pendingUnregister.cancel(false);
+                    pendingUnregister = null;
+                }
+                if (receiverRegistered) {
+                    unregisterReceiver();
+                }
+            } else if (receiverRegistered && null == pendingUnregister) {
+                pendingUnregister = worker.schedule(unregisterTask, RECEIVER_GRACE_PERIOD_MS);
+            }
+        }
     }
 
     /**
-     * 获取当前系统响铃模式
+     * 启动状态改变来源与输出设备监听，需持有 receiverLock
      */
-    public int getRingMode() {
-        if (null == ringModeState || null == ringModeState.getValue()) {
-            return VolumeUtils.getRingMode(audioMgr());
-        } else {
-            return ringModeState.getValue();
-        }
+    private void registerReceiver() {
+        Handler scheduler = receiverScheduler;
+        volumeSource.start(mContext, scheduler, sourceCallback);
+        audioMgr().registerAudioDeviceCallback(deviceCallback, scheduler);
+        receiverRegistered = true;
+        worker.execute(resyncTask);
     }
 
     /**
-     * 设置系统响铃模式
+     * 停止状态改变来源与输出设备监听，需持有 receiverLock
+     * <p>
+     * 之后状态表中的记录不再可信，读取时会重新查询系统状态
      */
-    @RequiresPermission(Manifest.permission.ACCESS_NOTIFICATION_POLICY)
-    public void setRingMode(int ringMode) {
-        VolumeUtils.setRingMode(audioMgr(), ringMode);
+    private void unregisterReceiver() {
+        stateTable.setStale(true);
+        staleMarks++;
+        volumeSource.stop(mContext);
+        audioMgr().unregisterAudioDeviceCallback(deviceCallback);
+        receiverRegistered = false;
     }
 
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 生命周期
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    private final Object lifecycleLock = new Object();
+
     /**
-     * 是否是静音模式
+     * 未释放的凭证数量
      */
-    public boolean isSilentMode() {
-        return AudioManager.RINGER_MODE_SILENT == getRingMode();
-    }
+    private int handleCount;
 
     /**
-     * 是否是振动模式
+     * 是否由凭证完成的初始化，只有这种情况下最后一个凭证释放时才逆初始化
      */
-    public boolean isVibrateMode() {
-        return AudioManager.RINGER_MODE_VIBRATE == getRingMode();
-    }
+    private boolean initByHandle;
 
     /**
-     * 是否是响铃模式
+     * 是否跟随进程生命周期暂停接收广播
      */
-    public boolean isNormalMode() {
-        return AudioManager.RINGER_MODE_NORMAL == getRingMode();
-    }
+    private volatile boolean suspendInBackground;
 
     /**
-     * 获取静音状态监听
+     * 进程是否在后台
      */
-    public LiveData<Boolean> muteState(int streamType) {
-        ConcurrentHashMap<Integer, MutableLiveData<Boolean>> muteMap = getMuteStateMap();
-        MutableLiveData<Boolean> muteLv = muteMap.get(streamType);
-        if (null == muteLv) {
-            muteLv = new MutableLiveData<>(VolumeUtils.isMute(audioMgr(), streamType));
-            muteMap.put(streamType, muteLv);
-        }
-        return muteLv;
-    }
+    private volatile boolean inBackground;
 
     /**
-     * 获取某个音量流是否是静音状态
-     *
+     * 进程生命周期监听
      * <p>
-     * 默认返回 LiveData 中的状态
-     * 如果 LiveData 没有被监听初始化，则查询系统静音状态
+     * 进入后台时注销广播，回到前台时重新注册并同步一次状态
      */
-    public boolean isMute(int streamType) {
-        MutableLiveData<Boolean> muteLv = getMuteStateMap().get(streamType);
-        if (null == muteLv || null == muteLv.getValue()) {
-            return VolumeUtils.isMute(audioMgr(), streamType);
-        } else {
-            return Boolean.TRUE.equals(muteLv.getValue());
+    private final DefaultLifecycleObserver processObserver = new DefaultLifecycleObserver() {
+        @Override
+        public void onStart(@NonNull LifecycleOwner owner) {
+            inBackground = false;
+            updateReceiver();
         }
-    }
+
+        @Override
+        public void onStop(@NonNull LifecycleOwner owner) {
+            inBackground = true;
+            updateReceiver();
+        }
+    };
 
     /**
-     * 设置静音
+     * 释放一个凭证
      */
-    public void setMute(int streamType, boolean mute) {
-        VolumeUtils.setMute(audioMgr(), streamType, mute, 0);
+    void release() {
+        synchronized (lifecycleLock) {
+            if (handleCount <= 0) {
+                return;
+            }
+            handleCount--;
+            if (0 != handleCount || !initByHandle) {
+                return;
+            }
+        }
+        // 在锁外逆初始化 写入剩余音量期间不阻塞其他线程获取凭证
+        exit(true);
     }
 
-    /**
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 事件
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 状态改变监听
+     */
+    private final CopyOnWriteArrayList<OnVolumeChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 基本类型监听
+     */
+    private final ListenerRegistry listenerRegistry = core.getListenerRegistry();
+
+    /**
+     * 音量改变（系统广播）
+     */
+    void onVolumeChanged(final int streamType, final int value, final int preValue) {
+        onVolumeChanged(streamType, value, preValue, VolumeChangeEvent.SOURCE_BROADCAST);
+    }
+
+    /**
+     * 音量改变
+     * <p>
+     * 与状态表中的值相同时直接忽略
+     */
+    void onVolumeChanged(final int streamType, final int value, final int preValue, final int source) {
+        if (!StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        boolean traced = VolumeTrace.beginSection("Volume.onVolumeChanged", streamType);
+        try {
+            int oldValue = publishVolume(streamType, value);
+            if (oldValue == value) {
+                return;
+            }
+            if (StreamStateTable.UNKNOWN == oldValue) {
+                oldValue = preValue;
+            }
+            dispatchChange(VolumeChangeEvent.TYPE_VOLUME, streamType, oldValue, value, source);
+        } finally {
+            VolumeTrace.endSection(traced);
+        }
+    }
+
+    /**
+     * 更新状态表中的音量，并通知 LiveData 与基本类型监听
+     *
+     * @return 旧值，没有改变时返回 value
+     */
+    private int publishVolume(int streamType, int value) {
+        return core.publishVolume(streamType, value);
+    }
+
+    /**
+     * 静音状态改变（系统广播）
+     */
+    void onMuteChanged(final int streamType, boolean isMute) {
+        onMuteChanged(streamType, isMute, VolumeChangeEvent.SOURCE_BROADCAST);
+    }
+
+    /**
+     * 静音状态改变
+     * <p>
+     * 与状态表中的值相同时直接忽略
+     */
+    void onMuteChanged(final int streamType, boolean isMute, final int source) {
+        if (!StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        int value = isMute ? 1 : 0;
+        int oldValue = publishMute(streamType, isMute);
+        if (oldValue == value) {
+            return;
+        }
+        dispatchChange(VolumeChangeEvent.TYPE_MUTE, streamType, oldValue, value, source);
+    }
+
+    /**
+     * 更新状态表中的静音状态，并通知 LiveData 与基本类型监听
+     *
+     * @return 旧值 1 / 0 / {@link StreamStateTable#UNKNOWN}，没有改变时返回新值
+     */
+    private int publishMute(int streamType, boolean isMute) {
+        return core.publishMute(streamType, isMute);
+    }
+
+    /**
+     * 响铃模式改变（系统广播）
+     */
+    void onRingModeChanged(final int ringMode) {
+        onRingModeChanged(ringMode, VolumeChangeEvent.SOURCE_BROADCAST);
+    }
+
+    /**
+     * 响铃模式改变
+     * <p>
+     * 与状态表中的值相同时直接忽略
+     */
+    void onRingModeChanged(final int ringMode, final int source) {
+        int oldValue = publishRingMode(ringMode);
+        if (oldValue == ringMode) {
+            return;
+        }
+        dispatchChange(VolumeChangeEvent.TYPE_RING_MODE, VolumeChangeEvent.NO_STREAM, oldValue, ringMode, source);
+    }
+
+    /**
+     * 更新状态表中的响铃模式，并通知 LiveData 与基本类型监听
+     *
+     * @return 旧值，没有改变时返回 ringMode
+     */
+    private int publishRingMode(int ringMode) {
+        return core.publishRingMode(ringMode);
+    }
+
+    /**
+     * 分发状态改变事件到主线程
+     * <p>
+     * 没有监听时不创建事件对象
+     */
+    private void dispatchChange(int type, int streamType, int oldValue, int newValue, int source) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        final VolumeChangeEvent event = new VolumeChangeEvent(type, streamType, oldValue, newValue, source);
+        mainExecutor.execute(() -> {
+            if (VolumeChangeEvent.TYPE_VOLUME == type) {
+                VolumeMetrics.onDispatched(streamType);
+                VolumeTrace.onDispatch(streamType, false);
+            }
+            boolean traced = VolumeTrace.beginSection("Volume.dispatchChange", streamType);
+            try {
+                for (OnVolumeChangeListener listener : changeListeners) {
+                    listener.onVolumeChange(event);
+                }
+            } finally {
+                VolumeTrace.endSection(traced);
+            }
+        });
+    }
+
+    /**
+     * 一次性分发多个状态改变事件到主线程
+     */
+    private void dispatchChanges(@NonNull List<VolumeChangeEvent> events) {
+        if (events.isEmpty() || changeListeners.isEmpty()) {
+            return;
+        }
+        final List<VolumeChangeEvent> batch = Collections.unmodifiableList(events);
+        mainExecutor.execute(() -> {
+            for (OnVolumeChangeListener listener : changeListeners) {
+                listener.onVolumeChanges(batch);
+            }
+        });
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 方法
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 获取 AudioManager
+     */
+    private AudioManager audioMgr() {
+        if (null == mContext) {
+            throw new UnsupportedOperationException("u need to initialize first~");
+        }
+        if (null == mAudioManager) {
+            mAudioManager = (AudioManager) mContext.getSystemService(Context.AUDIO_SERVICE);
+        }
+        return mAudioManager;
+    }
+
+    /**
+     * 校验 streamType 是否可以被状态表管理
+     */
+    private static void checkStreamType(int streamType) {
+        if (!StreamStateTable.isValid(streamType)) {
+            throw new IllegalArgumentException("unsupported streamType: " + streamType);
+        }
+    }
+
+    /**
+     * 获取存储响铃状态的 MutableLiveData
+     */
+    private MutableLiveData<Integer> getRingModeLv() {
+        if (null == ringModeState) {
+            ringModeState = new StateLiveData<>(getRingMode(), activeCallback);
+        }
+        return ringModeState;
+    }
+
+    /**
+     * 通知音量 LiveData，按帧分发时等到下一帧
+     */
+    private void postVolumeState(int streamType, int value) {
+        MutableLiveData<Integer> stateLd = volumeStates.get(streamType);
+        if (null == stateLd) {
+            return;
+        }
+        if (frameDispatcher.isEnabled()) {
+            frameDispatcher.postVolume(streamType, value);
+        } else {
+            stateLd.postValue(value);
+        }
+    }
+
+    /**
+     * 通知静音 LiveData，按帧分发时等到下一帧
+     */
+    private void postMuteState(int streamType, boolean isMute) {
+        MutableLiveData<Boolean> muteLv = muteStates.get(streamType);
+        if (null == muteLv) {
+            return;
+        }
+        if (frameDispatcher.isEnabled()) {
+            frameDispatcher.postMute(streamType, isMute);
+        } else {
+            muteLv.postValue(isMute);
+        }
+    }
+
+    /**
+     * 通知响铃模式 LiveData，按帧分发时等到下一帧
+     */
+    private void postRingModeState(int ringMode) {
+        MutableLiveData<Integer> ringModeLv = ringModeState;
+        if (null == ringModeLv) {
+            return;
+        }
+        if (frameDispatcher.isEnabled()) {
+            frameDispatcher.postRingMode(ringMode);
+        } else {
+            ringModeLv.postValue(ringMode);
+        }
+    }
+
+    /**
+     * 在调用方线程查询系统音量
+     * <p>
+     * 读取不经过工作线程，不会排在合并中的写入之后
+     */
+    private int queryVolume(final int streamType) {
+        return VolumeUtils.getVolume(audioMgr(), streamType);
+    }
+
+    /**
+     * 在调用方线程查询系统静音状态
+     */
+    private boolean queryMute(final int streamType) {
+        return VolumeUtils.isMute(audioMgr(), streamType);
+    }
+
+    /**
+     * 将结果切换到主线程回调
+     */
+    private <T> void deliver(CompletableFuture<T> future, VolumeCallback<T> callback) {
+        if (null == callback) {
+            return;
+        }
+        future.thenAcceptAsync(callback::onResult, mainExecutor);
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 开放接口
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 初始化
+     * <p>
+     * 系统音量改变监听在有观察者时注册，广播在主线程接收。重复初始化直接返回
+     */
+    public void init(Context context) {
+        init(context, false);
+    }
+
+    /**
+     * 初始化
+     * <p>
+     * 系统音量改变监听不在这一步注册：{@link #stateOf(int)} 等 LiveData 有活跃观察者，
+     * 或添加了任意监听时才注册，并同步一次状态；所有观察者都消失 {@link #RECEIVER_GRACE_PERIOD_MS} 后注销，
+     * 进程在后台时不会因为系统音量改变被唤醒
+     *
+     * @param receiveInBackground 是否在库内部的后台线程接收、解析广播并更新状态。
+     *                            长按音量键时每秒会收到几十条广播，开启后不再占用主线程，
+     *                            只有最终的 LiveData 分发会切换到主线程
+     */
+    public void init(Context context, boolean receiveInBackground) {
+        synchronized (lifecycleLock) {
+            if (null != mContext) {
+                return;
+            }
+
+            Handler scheduler = null;
+            if (receiveInBackground) {
+                receiverThread = new HandlerThread("Volume-Receiver", Process.THREAD_PRIORITY_BACKGROUND);
+                receiverThread.start();
+                scheduler = new Handler(receiverThread.getLooper());
+            }
+
+            receiverScheduler = scheduler;
+
+            // 预加载完成前音量、静音与响铃模式在状态表中不可见；音量范围不受影响
+            synchronized (receiverLock) {
+                stateTable.setStale(true);
+                initStaleMark = ++staleMarks;
+            }
+
+            // 只持有 Application 避免泄漏 Activity
+            Context appContext = context.getApplicationContext();
+            this.mContext = null == appContext ? context : appContext;
+
+            // 先取得 AudioManager 预加载才不会因为 mAudioManager 为空直接返回
+            audioMgr();
+        }
+
+        // 在工作线程预加载音量范围并同步一次状态，之后布局加载期间读取范围、音量、静音状态都不再需要 Binder 调用
+        worker.execute(initPrefetchTask);
+
+        // 已经有观察者时注册音量改变监听
+        updateReceiver();
+    }
+
+    /**
+     * 获取使用凭证
+     * <p>
+     * 第一个凭证获取时初始化，所有凭证释放后逆初始化；已经通过 {@link #init(Context)} 初始化时不会逆初始化
+     */
+    @NonNull
+    public VolumeHandle acquire(@NonNull Context context) {
+        return acquire(context, false);
+    }
+
+    /**
+     * 获取使用凭证
+     *
+     * @param receiveInBackground 参考 {@link #init(Context, boolean)}，只在第一次初始化时生效
+     */
+    @NonNull
+    public VolumeHandle acquire(@NonNull Context context, boolean receiveInBackground) {
+        synchronized (lifecycleLock) {
+            if (null == mContext) {
+                init(context, receiveInBackground);
+                initByHandle = true;
+            }
+            handleCount++;
+        }
+        return new VolumeHandle(this);
+    }
+
+    /**
+     * 是否跟随进程生命周期暂停接收广播
+     * <p>
+     * 开启后应用进入后台（{@link ProcessLifecycleOwner} onStop）时立即注销广播，
+     * 回到前台时重新注册并一次性同步后台期间的改变
+     */
+    public void setSuspendInBackground(boolean suspend) {
+        synchronized (lifecycleLock) {
+            if (suspendInBackground == suspend) {
+                return;
+            }
+            suspendInBackground = suspend;
+        }
+        // ProcessLifecycleOwner 只能在主线程添加监听
+        mainExecutor.execute(() -> {
+            Lifecycle lifecycle = ProcessLifecycleOwner.get().getLifecycle();
+            if (suspendInBackground) {
+                // 已经在后台时 addObserver 只补发到 CREATED 不会回调 onStop 需要自己判断
+                inBackground = !lifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+                lifecycle.addObserver(processObserver);
+                updateReceiver();
+            } else {
+                lifecycle.removeObserver(processObserver);
+                inBackground = false;
+                updateReceiver();
+            }
+        });
+    }
+
+    /**
+     * 逆初始化
+     * <p>
+     * 先在调用方线程写入尚未完成的音量（最多等待 {@link #EXIT_FLUSH_TIMEOUT_MS}），期间不持有生命周期锁
+     */
+    public void exit() {
+        exit(false);
+    }
+
+    /**
+     * @param byHandle 是否由最后一个凭证释放触发，写入期间重新获取了凭证时不再逆初始化
+     */
+    private void exit(boolean byHandle) {
+        if (null != mContext && volumeWriter.hasPending()) {
+            volumeWriter.flush(EXIT_FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+        synchronized (lifecycleLock) {
+            if (null == mContext || (byHandle && (handleCount > 0 || !initByHandle))) {
+                return;
+            }
+            initByHandle = false;
+
+            // 渐变的后续步骤会在逆初始化之后访问 AudioManager
+            rampEngine.cancelAll();
+
+            // 注销音量改变监听
+            synchronized (receiverLock) {
+                if (null != pendingUnregister) {
+                    pendingUnregister.cancel(false);
+                    pendingUnregister = null;
+                }
+                if (receiverRegistered) {
+                    unregisterReceiver();
+                }
+                // 在锁内置空 避免之后的观察者重新注册
+                this.mContext = null;
+            }
+            receiverScheduler = null;
+            if (null != receiverThread) {
+                receiverThread.quitSafely();
+                receiverThread = null;
+            }
+
+            // 不再接收广播 状态表中的记录不再可信
+            stateTable.clear();
+
+            this.mAudioManager = null;
+
+            // 移除进程生命周期监听 之后的前后台切换不再访问已经逆初始化的实例
+            if (suspendInBackground) {
+                suspendInBackground = false;
+                mainExecutor.execute(() -> {
+                    ProcessLifecycleOwner.get().getLifecycle().removeObserver(processObserver);
+                    inBackground = false;
+                });
+            }
+        }
+    }
+
+
+    /**
+     * 注册
+     * <p>
+     * 工具类内部根据生命周期，自行完成 {@link #init(Context)} 和 {@link #exit()} 方法
+     *
+     * @deprecated 只适合在单个 Activity 中使用的情况
+     */
+    @Deprecated
+    public void register(@NonNull AppCompatActivity activity) {
+        final VolumeHandle handle = acquire(activity);
+        activity.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner owner) {
+                handle.release();
+            }
+        });
+    }
+
+    /**
+     * 获取库支持的所有音量流
+     * <p>
+     * 界面可以据此生成音量面板，不需要自行维护音量流列表。返回的是副本，修改不会影响库内部
+     */
+    @NonNull
+    public int[] getStreamTypes() {
+        return VolumeUtils.STREAM_TYPES.clone();
+    }
+
+    /**
+     * 获取音量状态监听
+     * <p>
+     * 不查询系统：初始值取自状态表中的记录，没有记录时不设置初始值。
+     * LiveData 有活跃观察者后注册广播并重新同步，由同步发布真实的音量
+     */
+    @NonNull
+    public LiveData<Integer> stateOf(int streamType) {
+        checkStreamType(streamType);
+        MutableLiveData<Integer> stateLv = volumeStates.get(streamType);
+        if (null == stateLv) {
+            // 过期的记录也作为初始值 同步时与记录比较 不同才会发布
+            int volume = stateTable.getVolumeRecord(streamType);
+            volumeStates.compareAndSet(streamType, null, StreamStateTable.UNKNOWN == volume
+                    ? new StateLiveData<>(activeCallback, streamType)
+                    : new StateLiveData<>(volume, activeCallback, streamType));
+            stateLv = volumeStates.get(streamType);
+            // 创建期间收到的改变不会分发到新建的 LiveData 这里补发一次
+            int latest = stateTable.getVolumeRecord(streamType);
+            if (StreamStateTable.UNKNOWN != latest && latest != volume) {
+                stateLv.postValue(latest);
+            }
+        }
+        return stateLv;
+    }
+
+    /**
+     * 获取所有音量流的状态快照
+     * <p>
+     * 快照中的音量、静音、音量范围、响铃模式来自同一时刻，状态没有改变时直接返回上一次的快照。
+     * 没有记录的状态为 {@link VolumeSnapshot#UNKNOWN}，不会查询系统
+     */
+    @NonNull
+    public VolumeSnapshot getAllVolumes() {
+        VolumeSnapshot current = snapshot;
+        if (null != current && current.getVersion() == stateTable.sequence()) {
+            return current;
+        }
+        VolumeSnapshot latest = stateTable.snapshot();
+        snapshot = latest;
+        return latest;
+    }
+
+    /**
+     * 添加状态改变监听
+     * <p>
+     * 事件携带改变前后的值和来源，在主线程回调；状态没有真正改变时不会回调
+     */
+    public void addOnVolumeChangeListener(@NonNull OnVolumeChangeListener listener) {
+        changeListeners.addIfAbsent(listener);
+        updateReceiver();
+    }
+
+    /**
+     * 移除状态改变监听
+     */
+    public void removeOnVolumeChangeListener(@NonNull OnVolumeChangeListener listener) {
+        changeListeners.remove(listener);
+        updateReceiver();
+    }
+
+    /**
+     * 添加音量监听
+     * <p>
+     * 与 LiveData 不同，每一次改变都会回调，分发过程不分配对象，适合非 UI 的使用方
+     *
+     * @param looper 回调所在线程，为 null 时在状态更新的线程直接回调（不要在回调中执行耗时操作）
+     */
+    public void addVolumeListener(@NonNull IntStreamListener listener, @Nullable Looper looper) {
+        listenerRegistry.addVolumeListener(listener, null == looper ? null : new HandlerPoster(looper));
+        updateReceiver();
+    }
+
+    /**
+     * 移除音量监听
+     */
+    public void removeVolumeListener(@NonNull IntStreamListener listener) {
+        listenerRegistry.removeVolumeListener(listener);
+        updateReceiver();
+    }
+
+    /**
+     * 添加静音状态监听
+     *
+     * @param looper 回调所在线程，为 null 时在状态更新的线程直接回调（不要在回调中执行耗时操作）
+     */
+    public void addMuteListener(@NonNull BooleanStreamListener listener, @Nullable Looper looper) {
+        listenerRegistry.addMuteListener(listener, null == looper ? null : new HandlerPoster(looper));
+        updateReceiver();
+    }
+
+    /**
+     * 移除静音状态监听
+     */
+    public void removeMuteListener(@NonNull BooleanStreamListener listener) {
+        listenerRegistry.removeMuteListener(listener);
+        updateReceiver();
+    }
+
+    /**
+     * 添加响铃模式监听
+     *
+     * @param looper 回调所在线程，为 null 时在状态更新的线程直接回调（不要在回调中执行耗时操作）
+     */
+    public void addRingModeListener(@NonNull RingModeListener listener, @Nullable Looper looper) {
+        listenerRegistry.addRingModeListener(listener, null == looper ? null : new HandlerPoster(looper));
+        updateReceiver();
+    }
+
+    /**
+     * 移除响铃模式监听
+     */
+    public void removeRingModeListener(@NonNull RingModeListener listener) {
+        listenerRegistry.removeRingModeListener(listener);
+        updateReceiver();
+    }
+
+    /**
+     * 根据 streamType 获取当前音量
+     * <p>
+     * 默认返回状态表中的音量
+     * 如果状态表中没有记录，则查询系统音量
+     */
+    public int getVolume(int streamType) {
+        int volume = stateTable.getVolume(streamType);
+        if (StreamStateTable.UNKNOWN == volume) {
+            return queryVolume(streamType);
+        } else {
+            return volume;
+        }
+    }
+
+    /**
+     * 设置音量到指定 streamType
+     * <p>
+     * 写入是异步的：短时间内的连续写入只会写入最后一个值，与当前音量相同的写入会被忽略。
+     * 需要确认写入完成时调用 {@link #flush()}
+     *
+     * @param volume 当 volume 超过最大值时，不会抛出异常，而是最大化音量。低于最小值时同理
+     * @param flags  参考：
+     *               <ul>
+     *               <li>{@link AudioManager#FLAG_SHOW_UI}</li>
+     *               <li>{@link AudioManager#FLAG_ALLOW_RINGER_MODES}</li>
+     *               <li>{@link AudioManager#FLAG_PLAY_SOUND}</li>
+     *               <li>{@link AudioManager#FLAG_REMOVE_SOUND_AND_VIBRATE}</li>
+     *               <li>{@link AudioManager#FLAG_VIBRATE}</li>
+     *               </ul>
+     */
+    public void setVolume(int streamType, int volume, int flags) {
+        // 未初始化时在调用方线程抛出异常 而不是在工作线程中
+        audioMgr();
+        rampEngine.cancel(streamType);
+        volumeWriter.submit(streamType, volume, flags);
+    }
+
+    /**
+     * 立即写入所有通过 {@link #setVolume(int, int, int)} 提交的音量，并等待写入完成
+     * <p>
+     * 会阻塞当前线程，避免在主线程调用
+     */
+    public void flush() {
+        volumeWriter.flush(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即写入所有通过 {@link #setVolume(int, int, int)} 提交的音量，并等待写入完成
+     *
+     * @return 是否在超时前完成写入
+     */
+    public boolean flush(long timeout, @NonNull TimeUnit unit) {
+        return volumeWriter.flush(timeout, unit);
+    }
+
+    /**
+     * 模拟按键调节音量
+     * <p>
+     * 写入是异步的：在工作线程排在该音量流已提交的写入之后执行，需要确认完成时使用 {@link #adjustVolumeAsync}
+     *
+     * @param flag 参考：
+     *             <ul>
+     *             <li>{@link AudioManager#FLAG_SHOW_UI}</li>
+     *             <li>{@link AudioManager#FLAG_ALLOW_RINGER_MODES}</li>
+     *             <li>{@link AudioManager#FLAG_PLAY_SOUND}</li>
+     *             <li>{@link AudioManager#FLAG_REMOVE_SOUND_AND_VIBRATE}</li>
+     *             <li>{@link AudioManager#FLAG_VIBRATE}</li>
+     *             </ul>
+     */
+    public void adjustVolume(int streamType, boolean isAdd, int flag) {
+        adjustVolumeAsync(streamType, isAdd, flag);
+    }
+
+    /**
+     * 模拟按键调节音量
+     */
+    public void adjustVolume(int streamType, boolean isAdd) {
+        adjustVolume(streamType, isAdd, 0);
+    }
+
+    /**
+     * 返回指定 streamType 的最大值
+     * <p>
+     * 优先返回预加载的音量范围
+     */
+    public int getMaxVolume(final int streamType) {
+        int max = stateTable.getMax(streamType);
+        if (StreamStateTable.UNKNOWN != max) {
+            return max;
+        }
+        final AudioManager manager = audioMgr();
+        if (!StreamStateTable.isValid(streamType)) {
+            return VolumeUtils.getMaxVolume(manager, streamType);
+        }
+        // 状态表是原子的 在调用方线程加载即可 不必排在写入之后
+        loadRange(streamType);
+        return stateTable.getMax(streamType);
+    }
+
+    /**
+     * 返回指定 streamType 的最小值
+     * <p>
+     * 优先返回预加载的音量范围
+     */
+    @RequiresApi(api = Build.VERSION_CODES.P)
+    public int getMinVolume(final int streamType) {
+        int min = stateTable.getMin(streamType);
+        if (StreamStateTable.UNKNOWN != min) {
+            return min;
+        }
+        final AudioManager manager = audioMgr();
+        if (!StreamStateTable.isValid(streamType)) {
+            return VolumeUtils.getMinVolume(manager, streamType);
+        }
+        // 状态表是原子的 在调用方线程加载即可 不必排在写入之后
+        loadRange(streamType);
+        return stateTable.getMin(streamType);
+    }
+
+    /**
+     * 获取系统响铃模式状态监听
+     */
+    public LiveData<Integer> ringMode() {
+        return getRingModeLv();
+    }
+
+    /**
+     * 获取当前系统响铃模式
+     */
+    public int getRingMode() {
+        int ringMode = stateTable.getRingMode();
+        if (StreamStateTable.UNKNOWN == ringMode) {
+            return VolumeUtils.getRingMode(audioMgr());
+        } else {
+            return ringMode;
+        }
+    }
+
+    /**
+     * 设置系统响铃模式
+     * <p>
+     * 写入是异步的，需要确认完成时使用 {@link #setRingModeAsync(int)}
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NOTIFICATION_POLICY)
+    public void setRingMode(int ringMode) {
+        setRingModeAsync(ringMode);
+    }
+
+    /**
+     * 是否是静音模式
+     */
+    public boolean isSilentMode() {
+        return AudioManager.RINGER_MODE_SILENT == getRingMode();
+    }
+
+    /**
+     * 是否是振动模式
+     */
+    public boolean isVibrateMode() {
+        return AudioManager.RINGER_MODE_VIBRATE == getRingMode();
+    }
+
+    /**
+     * 是否是响铃模式
+     */
+    public boolean isNormalMode() {
+        return AudioManager.RINGER_MODE_NORMAL == getRingMode();
+    }
+
+    /**
+     * 获取静音状态监听
+     * <p>
+     * 与 {@link #stateOf(int)} 相同，初始值取自状态表中的记录，不查询系统也不写入状态表
+     */
+    public LiveData<Boolean> muteState(int streamType) {
+        checkStreamType(streamType);
+        MutableLiveData<Boolean> muteLv = muteStates.get(streamType);
+        if (null == muteLv) {
+            int mute = stateTable.getMuteRecord(streamType);
+            muteStates.compareAndSet(streamType, null, StreamStateTable.UNKNOWN == mute
+                    ? new StateLiveData<>(activeCallback)
+                    : new StateLiveData<>(1 == mute, activeCallback));
+            muteLv = muteStates.get(streamType);
+            // 创建期间收到的改变不会分发到新建的 LiveData 这里补发一次
+            int latest = stateTable.getMuteRecord(streamType);
+            if (StreamStateTable.UNKNOWN != latest && latest != mute) {
+                muteLv.postValue(1 == latest);
+            }
+        }
+        return muteLv;
+    }
+
+    /**
+     * 获取某个音量流是否是静音状态
+     *
+     * <p>
+     * 默认返回状态表中的状态
+     * 如果状态表中没有记录，则查询系统静音状态
+     */
+    public boolean isMute(int streamType) {
+        if (stateTable.hasMute(streamType)) {
+            return stateTable.isMute(streamType);
+        } else {
+            return queryMute(streamType);
+        }
+    }
+
+    /**
+     * 设置静音
+     * <p>
+     * 写入是异步的，需要确认完成时使用 {@link #setMuteAsync(int, boolean)}
+     */
+    public void setMute(int streamType, boolean mute) {
+        setMuteAsync(streamType, mute);
+    }
+
+    /**
      * 根据当前静音状态 设置静音
+     * <p>
+     * 在工作线程执行时才读取系统的静音状态，连续调用时每次都基于上一次切换后的状态，不会读到过期的记录
+     */
+    public void setMute(final int streamType) {
+        final AudioManager manager = audioMgr();
+        worker.execute(() -> {
+            volumeWriter.drainNow(streamType);
+            VolumeUtils.setMute(manager, streamType, !VolumeUtils.isMute(manager, streamType), 0);
+        });
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 异步接口
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 异步设置音量
+     * <p>
+     * 与 {@link #setVolume(int, int, int)} 一样经过合并写入，返回的 Future 在该音量流写入完成后结束
+     */
+    public CompletableFuture<Void> setVolumeAsync(final int streamType, int volume, int flags) {
+        audioMgr();
+        rampEngine.cancel(streamType);
+        volumeWriter.submit(streamType, volume, flags);
+        return worker.run(() -> volumeWriter.drainNow(streamType));
+    }
+
+    /**
+     * 异步批量设置音量
+     *
+     * @param streamTypes 音量流
+     * @param volumes     与 streamTypes 一一对应的音量
+     */
+    public CompletableFuture<Void> setVolumesAsync(@NonNull final int[] streamTypes, @NonNull int[] volumes, int flags) {
+        if (streamTypes.length != volumes.length) {
+            throw new IllegalArgumentException("streamTypes and volumes must have the same length");
+        }
+        audioMgr();
+        for (int i = 0; i < streamTypes.length; i++) {
+            rampEngine.cancel(streamTypes[i]);
+            volumeWriter.submit(streamTypes[i], volumes[i], flags);
+        }
+        return worker.run(() -> {
+            for (int streamType : streamTypes) {
+                volumeWriter.drainNow(streamType);
+            }
+        });
+    }
+
+    /**
+     * 异步获取音量
+     * <p>
+     * 状态表中有记录时直接返回，否则在工作线程查询系统音量
+     */
+    public CompletableFuture<Integer> getVolumeAsync(final int streamType) {
+        int volume = stateTable.getVolume(streamType);
+        if (StreamStateTable.UNKNOWN != volume) {
+            return CompletableFuture.completedFuture(volume);
+        }
+        final AudioManager manager = audioMgr();
+        return worker.supply(() -> VolumeUtils.getVolume(manager, streamType));
+    }
+
+    /**
+     * 异步获取音量 结果在主线程回调
+     */
+    public void getVolumeAsync(int streamType, @NonNull VolumeCallback<Integer> callback) {
+        deliver(getVolumeAsync(streamType), callback);
+    }
+
+    /**
+     * 异步批量获取音量
+     *
+     * @return 与 streamTypes 一一对应的音量
+     */
+    public CompletableFuture<int[]> getVolumesAsync(@NonNull final int... streamTypes) {
+        final AudioManager manager = audioMgr();
+        return worker.supply(() -> {
+            int[] volumes = new int[streamTypes.length];
+            for (int i = 0; i < streamTypes.length; i++) {
+                int volume = stateTable.getVolume(streamTypes[i]);
+                volumes[i] = StreamStateTable.UNKNOWN != volume ? volume : VolumeUtils.getVolume(manager, streamTypes[i]);
+            }
+            return volumes;
+        });
+    }
+
+    /**
+     * 异步批量获取音量 结果在主线程回调
+     */
+    public void getVolumesAsync(@NonNull int[] streamTypes, @NonNull VolumeCallback<int[]> callback) {
+        deliver(getVolumesAsync(streamTypes), callback);
+    }
+
+    /**
+     * 异步模拟按键调节音量
+     */
+    public CompletableFuture<Void> adjustVolumeAsync(final int streamType, final boolean isAdd, final int flag) {
+        final AudioManager manager = audioMgr();
+        rampEngine.cancel(streamType);
+        return worker.run(() -> {
+            volumeWriter.drainNow(streamType);
+            try {
+                VolumeUtils.adjustVolume(manager, streamType, isAdd, flag);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * 异步获取最大音量
+     */
+    public CompletableFuture<Integer> getMaxVolumeAsync(final int streamType) {
+        int max = stateTable.getMax(streamType);
+        if (StreamStateTable.UNKNOWN != max) {
+            return CompletableFuture.completedFuture(max);
+        }
+        final AudioManager manager = audioMgr();
+        return worker.supply(() -> VolumeUtils.getMaxVolume(manager, streamType));
+    }
+
+    /**
+     * 异步获取最大音量 结果在主线程回调
+     */
+    public void getMaxVolumeAsync(int streamType, @NonNull VolumeCallback<Integer> callback) {
+        deliver(getMaxVolumeAsync(streamType), callback);
+    }
+
+    /**
+     * 异步获取最小音量
+     */
+    public CompletableFuture<Integer> getMinVolumeAsync(final int streamType) {
+        int min = stateTable.getMin(streamType);
+        if (StreamStateTable.UNKNOWN != min) {
+            return CompletableFuture.completedFuture(min);
+        }
+        final AudioManager manager = audioMgr();
+        return worker.supply(() -> VolumeUtils.getMinVolume(manager, streamType));
+    }
+
+    /**
+     * 异步获取最小音量 结果在主线程回调
+     */
+    public void getMinVolumeAsync(int streamType, @NonNull VolumeCallback<Integer> callback) {
+        deliver(getMinVolumeAsync(streamType), callback);
+    }
+
+    /**
+     * 异步获取系统响铃模式
+     */
+    public CompletableFuture<Integer> getRingModeAsync() {
+        int ringMode = stateTable.getRingMode();
+        if (StreamStateTable.UNKNOWN != ringMode) {
+            return CompletableFuture.completedFuture(ringMode);
+        }
+        final AudioManager manager = audioMgr();
+        return worker.supply(() -> VolumeUtils.getRingMode(manager));
+    }
+
+    /**
+     * 异步获取系统响铃模式 结果在主线程回调
+     */
+    public void getRingModeAsync(@NonNull VolumeCallback<Integer> callback) {
+        deliver(getRingModeAsync(), callback);
+    }
+
+    /**
+     * 异步设置系统响铃模式
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NOTIFICATION_POLICY)
+    public CompletableFuture<Void> setRingModeAsync(final int ringMode) {
+        final AudioManager manager = audioMgr();
+        return worker.run(() -> VolumeUtils.setRingMode(manager, ringMode));
+    }
+
+    /**
+     * 异步获取静音状态
+     */
+    public CompletableFuture<Boolean> isMuteAsync(final int streamType) {
+        if (stateTable.hasMute(streamType)) {
+            return CompletableFuture.completedFuture(stateTable.isMute(streamType));
+        }
+        final AudioManager manager = audioMgr();
+        return worker.supply(() -> VolumeUtils.isMute(manager, streamType));
+    }
+
+    /**
+     * 异步获取静音状态 结果在主线程回调
+     */
+    public void isMuteAsync(int streamType, @NonNull VolumeCallback<Boolean> callback) {
+        deliver(isMuteAsync(streamType), callback);
+    }
+
+    /**
+     * 异步设置静音
+     */
+    public CompletableFuture<Void> setMuteAsync(final int streamType, final boolean mute) {
+        final AudioManager manager = audioMgr();
+        return worker.run(() -> {
+            volumeWriter.drainNow(streamType);
+            VolumeUtils.setMute(manager, streamType, mute, 0);
+        });
+    }
+
+    /**
+     * 手动重新同步
+     * <p>
+     * 重新注册广播、回到前台时会自动执行；怀疑状态与系统不一致时（例如没有观察者期间读取过 LiveData）也可以手动调用
+     *
+     * @return 与状态表不同、产生了通知的记录数量
+     */
+    public CompletableFuture<Integer> resync() {
+        final AudioManager manager = audioMgr();
+        return worker.supply(() -> {
+            int changed = resync(manager);
+            synchronized (receiverLock) {
+                if (receiverRegistered) {
+                    stateTable.setStale(false);
+                }
+            }
+            return changed;
+        });
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 状态来源
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 来源探测时写入后等待上报的最长时间
+     */
+    private static final long PROBE_TIMEOUT_MS = 2_000L;
+
+    /**
+     * 来源启动后等待其完成首次查询的时间，避免首次查询被误认为检测到了探测写入
+     */
+    private static final long PROBE_SETTLE_MS = 300L;
+
+    /**
+     * 设置状态改变来源
+     * <p>
+     * 正在接收时立即切换，并同步一次切换期间的改变
+     */
+    public void setVolumeSource(@NonNull VolumeSource source) {
+        synchronized (receiverLock) {
+            if (source == volumeSource) {
+                return;
+            }
+            if (receiverRegistered) {
+                stateTable.setStale(true);
+                staleMarks++;
+                volumeSource.stop(mContext);
+                source.start(mContext, receiverScheduler, sourceCallback);
+                worker.execute(resyncTask);
+            }
+            volumeSource = source;
+        }
+    }
+
+    /**
+     * 获取当前状态改变来源
+     */
+    @NonNull
+    public VolumeSource getVolumeSource() {
+        synchronized (receiverLock) {
+            return volumeSource;
+        }
+    }
+
+    /**
+     * 测量各来源的检测延迟
+     * <p>
+     * 依次启动每个来源，将音量调整一档后等待来源上报，再恢复原音量。
+     * 来源上报调整后的音量、该音量流解除静音，或者调整铃声后响铃模式恢复正常，以最先到达的一个作为检测到的时间。
+     * 会真实改变音量并产生状态改变事件，只适合在诊断、首次启动时执行；在库内部的探测线程执行，不阻塞写入
+     *
+     * @param sources 新创建的来源，不能是当前正在使用的来源
+     * @return 与 sources 一一对应的检测延迟（微秒），{@link #PROBE_TIMEOUT_MS} 内没有检测到时为 -1
+     */
+    public CompletableFuture<long[]> measureVolumeSources(final int streamType, @NonNull final VolumeSource... sources) {
+        checkStreamType(streamType);
+        final AudioManager manager = audioMgr();
+        final Context context = mContext;
+        final Handler scheduler = receiverScheduler;
+        synchronized (receiverLock) {
+            for (VolumeSource source : sources) {
+                if (source == volumeSource) {
+                    throw new IllegalArgumentException("can't measure the active source: " + source.getName());
+                }
+            }
+        }
+        final CompletableFuture<long[]> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(probeSources(context, manager, scheduler, streamType, sources));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, "Volume-Probe");
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    /**
+     * 在探测线程依次测量各来源
+     */
+    private static long[] probeSources(Context context, AudioManager manager, @Nullable Handler scheduler,
+                                       final int streamType, VolumeSource[] sources) throws InterruptedException {
+        long[] latencies = new long[sources.length];
+        int min = VolumeUtils.getMinVolume(manager, streamType);
+        int max = VolumeUtils.getMaxVolume(manager, streamType);
+        for (int i = 0; i < sources.length; i++) {
+            final int original = VolumeUtils.getVolume(manager, streamType);
+            final int probe = original < max ? original + 1 : original - 1;
+            if (probe < min) {
+                latencies[i] = -1;
+                continue;
+            }
+            final CountDownLatch latch = new CountDownLatch(1);
+            final long[] detectedAt = new long[1];
+            // 写入之前来源上报的是启动时的状态 不计入
+            final AtomicLong startedAt = new AtomicLong();
+            VolumeSource.Callback callback = new VolumeSource.Callback() {
+                @Override
+                public void onVolumeChanged(int changedStream, int value, int preValue) {
+                    if (changedStream == streamType && value == probe) {
+                        detect();
+                    }
+                }
+
+                @Override
+                public void onMuteChanged(int changedStream, boolean isMute) {
+                    // 静音时写入音量会解除静音 部分来源只上报这一次改变
+                    if (changedStream == streamType && !isMute) {
+                        detect();
+                    }
+                }
+
+                @Override
+                public void onRingModeChanged(int ringMode) {
+                    // 振动、静音模式下调高铃声会恢复正常模式
+                    if (AudioManager.STREAM_RING == streamType && AudioManager.RINGER_MODE_NORMAL == ringMode) {
+                        detect();
+                    }
+                }
+
+                private void detect() {
+                    if (0L != startedAt.get() && latch.getCount() > 0) {
+                        detectedAt[0] = SystemClock.elapsedRealtimeNanos();
+                        latch.countDown();
+                    }
+                }
+            };
+            sources[i].start(context, scheduler, callback);
+            try {
+                Thread.sleep(PROBE_SETTLE_MS);
+                long start = SystemClock.elapsedRealtimeNanos();
+                startedAt.set(start);
+                boolean detected = VolumeUtils.trySetVolume(manager, streamType, probe, 0)
+                        && latch.await(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                latencies[i] = detected ? (detectedAt[0] - start) / 1_000L : -1;
+            } finally {
+                sources[i].stop(context);
+                VolumeUtils.trySetVolume(manager, streamType, original, 0);
+            }
+            Thread.sleep(PROBE_SETTLE_MS);
+        }
+        return latencies;
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 批量修改
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 批量修改音量、静音状态与响铃模式
+     * <p>
+     * 所有修改在工作线程一次执行完，与当前状态相同的修改会被跳过。
+     * 执行顺序为音量、静音、响铃模式（响铃模式会影响响铃与通知音量，放在最后）。
+     * 全部完成后更新状态，LiveData 在同一轮主线程消息中更新，
+     * {@link OnVolumeChangeListener#onVolumeChanges(List)} 只回调一次
+     * <p>
+     * 部分修改失败且 {@link VolumeBatch#setRollbackOnFailure(boolean)} 为 true 时，
+     * 剩余修改不再执行，已经生效的修改会被撤销；为 false 时继续执行剩余修改，在结果中报告失败项
+     */
+    public CompletableFuture<VolumeBatchResult> setVolumes(@NonNull VolumeBatch batch) {
+        final AudioManager manager = audioMgr();
+        final VolumeBatch copy = batch.copy();
+        for (int streamType = 0; streamType < StreamStateTable.CAPACITY; streamType++) {
+            if (StreamStateTable.UNKNOWN != copy.getVolume(streamType)) {
+                rampEngine.cancel(streamType);
+            }
+        }
+        return worker.supply(() -> applyBatch(manager, copy));
+    }
+
+    /**
+     * 批量修改 结果在主线程回调
+     */
+    public void setVolumes(@NonNull VolumeBatch batch, @NonNull VolumeCallback<VolumeBatchResult> callback) {
+        deliver(setVolumes(batch), callback);
+    }
+
+    /**
+     * 应用音量配置
+     * <p>
+     * 通过 {@link #setVolumes(VolumeBatch)} 执行
+     */
+    public CompletableFuture<VolumeBatchResult> applyProfile(@NonNull VolumeProfile profile) {
+        return setVolumes(profile.toBatch());
+    }
+
+    /**
+     * 应用已保存的音量配置
+     * <p>
+     * 直接从映射文件读取到批量修改中，不创建 {@link VolumeProfile}
+     *
+     * @throws IllegalArgumentException 配置不存在
+     */
+    public CompletableFuture<VolumeBatchResult> applyProfile(@NonNull VolumeProfileStore store, int id) {
+        VolumeBatch batch = store.getBatch(id);
+        if (null == batch) {
+            throw new IllegalArgumentException("profile not found: " + id);
+        }
+        return setVolumes(batch);
+    }
+
+    /**
+     * 在工作线程执行批量修改
+     */
+    @SuppressLint("MissingPermission")
+    private VolumeBatchResult applyBatch(AudioManager manager, VolumeBatch batch) {
+        final int capacity = StreamStateTable.CAPACITY;
+        final boolean rollback = batch.isRollbackOnFailure();
+        // 修改前的值，UNKNOWN 表示没有修改
+        int[] oldVolumes = new int[capacity];
+        int[] oldMutes = new int[capacity];
+        Arrays.fill(oldVolumes, StreamStateTable.UNKNOWN);
+        Arrays.fill(oldMutes, StreamStateTable.UNKNOWN);
+        int oldRingMode = StreamStateTable.UNKNOWN;
+        int applied = 0;
+        int elided = 0;
+        int volumeFailedMask = 0;
+        int muteFailedMask = 0;
+        boolean ringModeFailed = false;
+
+        for (int streamType = 0; streamType < capacity && (!rollback || 0 == (volumeFailedMask | muteFailedMask)); streamType++) {
+            int volume = batch.getVolume(streamType);
+            if (StreamStateTable.UNKNOWN == volume) {
+                continue;
+            }
+            // 先写入之前提交的音量 保证顺序
+            volumeWriter.drainNow(streamType);
+            loadRange(streamType);
+            volume = stateTable.clamp(streamType, volume);
+            int current = volumeWriter.knownVolume(streamType);
+            if (StreamStateTable.UNKNOWN == current) {
+                current = VolumeUtils.getVolume(manager, streamType);
+            }
+            if (volume == current) {
+                elided++;
+            } else if (volumeWriter.writeNow(streamType, volume, batch.getFlags())) {
+                oldVolumes[streamType] = current;
+                applied++;
+            } else {
+                volumeFailedMask |= 1 << streamType;
+            }
+        }
+
+        for (int streamType = 0; streamType < capacity && (!rollback || 0 == (volumeFailedMask | muteFailedMask)); streamType++) {
+            int mute = batch.getMute(streamType);
+            if (StreamStateTable.UNKNOWN == mute) {
+                continue;
+            }
+            boolean current = stateTable.hasMute(streamType)
+                    ? stateTable.isMute(streamType)
+                    : VolumeUtils.isMute(manager, streamType);
+            if ((1 == mute) == current) {
+                elided++;
+            } else if (VolumeUtils.trySetMute(manager, streamType, 1 == mute, 0)) {
+                oldMutes[streamType] = current ? 1 : 0;
+                applied++;
+            } else {
+                muteFailedMask |= 1 << streamType;
+            }
+        }
+
+        int ringMode = batch.getRingMode();
+        if (StreamStateTable.UNKNOWN != ringMode && (!rollback || 0 == (volumeFailedMask | muteFailedMask))) {
+            int current = stateTable.getRingMode();
+            if (StreamStateTable.UNKNOWN == current) {
+                current = VolumeUtils.getRingMode(manager);
+            }
+            if (ringMode == current) {
+                elided++;
+            } else if (VolumeUtils.trySetRingMode(manager, ringMode)) {
+                oldRingMode = current;
+                applied++;
+            } else {
+                ringModeFailed = true;
+            }
+        }
+
+        int[] failedStreams = streamsOf(volumeFailedMask);
+        int[] muteFailedStreams = streamsOf(muteFailedMask);
+        boolean failed = 0 != (volumeFailedMask | muteFailedMask) || ringModeFailed;
+
+        if (failed && rollback) {
+            // 按相反顺序撤销 尽力而为
+            boolean undone = true;
+            if (StreamStateTable.UNKNOWN != oldRingMode) {
+                undone = VolumeUtils.trySetRingMode(manager, oldRingMode);
+            }
+            for (int streamType = capacity - 1; streamType >= 0; streamType--) {
+                if (StreamStateTable.UNKNOWN != oldMutes[streamType]) {
+                    undone &= VolumeUtils.trySetMute(manager, streamType, 1 == oldMutes[streamType], 0);
+                }
+            }
+            for (int streamType = capacity - 1; streamType >= 0; streamType--) {
+                if (StreamStateTable.UNKNOWN != oldVolumes[streamType]) {
+                    undone &= volumeWriter.writeNow(streamType, oldVolumes[streamType], 0);
+                }
+            }
+            // 部分写入与撤销之后的状态无法推算 重新同步一次 只有与状态表不同的记录会产生通知
+            resync(manager);
+            return new VolumeBatchResult(applied, elided, failedStreams, muteFailedStreams, ringModeFailed,
+                    applied > 0 && undone, !undone);
+        }
+
+        // 合并通知 之后到达的广播与状态表相同 会被忽略
+        List<VolumeChangeEvent> events = changeListeners.isEmpty() ? null : new ArrayList<>(applied);
+        for (int streamType = 0; streamType < capacity; streamType++) {
+            if (StreamStateTable.UNKNOWN == oldVolumes[streamType]) {
+                continue;
+            }
+            int value = stateTable.clamp(streamType, batch.getVolume(streamType));
+            int oldValue = publishVolume(streamType, value);
+            if (null != events && oldValue != value) {
+                events.add(new VolumeChangeEvent(VolumeChangeEvent.TYPE_VOLUME, streamType,
+                        StreamStateTable.UNKNOWN == oldValue ? oldVolumes[streamType] : oldValue,
+                        value, VolumeChangeEvent.SOURCE_BATCH));
+            }
+        }
+        for (int streamType = 0; streamType < capacity; streamType++) {
+            if (StreamStateTable.UNKNOWN == oldMutes[streamType]) {
+                continue;
+            }
+            int value = batch.getMute(streamType);
+            int oldValue = publishMute(streamType, 1 == value);
+            if (null != events && oldValue != value) {
+                events.add(new VolumeChangeEvent(VolumeChangeEvent.TYPE_MUTE, streamType,
+                        oldMutes[streamType], value, VolumeChangeEvent.SOURCE_BATCH));
+            }
+        }
+        if (StreamStateTable.UNKNOWN != oldRingMode) {
+            int oldValue = publishRingMode(ringMode);
+            if (null != events && oldValue != ringMode) {
+                events.add(new VolumeChangeEvent(VolumeChangeEvent.TYPE_RING_MODE, VolumeChangeEvent.NO_STREAM,
+                        oldRingMode, ringMode, VolumeChangeEvent.SOURCE_BATCH));
+            }
+        }
+        if (null != events) {
+            dispatchChanges(events);
+        }
+        return new VolumeBatchResult(applied, elided, failedStreams, muteFailedStreams, ringModeFailed,
+                false, false);
+    }
+
+    /**
+     * 掩码中的音量流
+     */
+    private static int[] streamsOf(int mask) {
+        int[] streamTypes = new int[Integer.bitCount(mask)];
+        for (int streamType = 0, i = 0; i < streamTypes.length; streamType++) {
+            if ((mask & (1 << streamType)) != 0) {
+                streamTypes[i++] = streamType;
+            }
+        }
+        return streamTypes;
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 百分比、分贝
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 设置百分比音量曲线
+     * <p>
+     * 默认为 {@link VolumeCurve#LINEAR}
+     */
+    public void setVolumeCurve(int streamType, @NonNull VolumeCurve curve) {
+        checkStreamType(streamType);
+        volumeMapper.setCurve(streamType, curve);
+    }
+
+    /**
+     * 获取百分比音量
+     *
+     * @return 0 ~ 100
+     */
+    public int getVolumePercent(int streamType) {
+        return percentTable(streamType).toPercent(getVolume(streamType));
+    }
+
+    /**
+     * 以百分比设置音量
+     *
+     * @param percent 0 ~ 100，超出范围时取边界值
+     * @param flags   参考 {@link #setVolume(int, int, int)}
+     */
+    public void setVolumePercent(int streamType, int percent, int flags) {
+        setVolume(streamType, percentTable(streamType).toIndex(percent), flags);
+    }
+
+    /**
+     * 获取当前音量对应的分贝值
+     * <p>
+     * 首次调用或输出设备改变后在调用方线程构建分贝映射表，每一档一次 Binder 调用
+     *
+     * @return 查询失败时返回 {@link Float#NEGATIVE_INFINITY}
+     */
+    public float getVolumeDb(int streamType) {
+        return dbTable(streamType).toDb(getVolume(streamType));
+    }
+
+    /**
+     * 获取指定音量档位对应的分贝值
+     *
+     * @return 查询失败时返回 {@link Float#NEGATIVE_INFINITY}
+     */
+    public float getVolumeDb(int streamType, int index) {
+        return dbTable(streamType).toDb(index);
+    }
+
+    /**
+     * 以分贝设置音量
+     * <p>
+     * 设置为分贝值不超过 db 的最大音量
+     *
+     * @param flags 参考 {@link #setVolume(int, int, int)}
+     */
+    public void setVolumeDb(int streamType, float db, int flags) {
+        setVolume(streamType, dbTable(streamType).toIndex(db), flags);
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 渐变
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 音量渐变
+     * <p>
+     * 只在音量需要跨过下一档的时间点写入，所有渐变共用库内部的工作线程。
+     * 同一音量流上的新渐变会替换旧渐变；渐变期间调用 {@link #setVolume(int, int, int)}、
+     * {@link #adjustVolume(int, boolean, int)}，或音量被其他应用修改时渐变会被取消
+     *
+     * @param target     目标音量，超出范围时取边界值
+     * @param durationMs 渐变时长
+     * @param easing     缓动曲线，参考 {@link Easing}
+     * @param flags      参考 {@link #setVolume(int, int, int)}
+     * @return 渐变完成时结果为 true，被取消时为 false
+     */
+    public CompletableFuture<Boolean> rampVolume(int streamType, int target, long durationMs,
+                                                 @NonNull Easing easing, int flags) {
+        checkStreamType(streamType);
+        audioMgr();
+        return rampEngine.start(streamType, target, durationMs, easing, flags);
+    }
+
+    /**
+     * 匀速音量渐变
+     */
+    public CompletableFuture<Boolean> rampVolume(int streamType, int target, long durationMs) {
+        return rampVolume(streamType, target, durationMs, Easing.LINEAR, 0);
+    }
+
+    /**
+     * 取消音量渐变
+     * <p>
+     * 音量停留在当前值
+     */
+    public void cancelRamp(int streamType) {
+        rampEngine.cancel(streamType);
+    }
+
+    /**
+     * 某个音量流是否正在渐变
+     */
+    public boolean isRamping(int streamType) {
+        return rampEngine.isRamping(streamType);
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 指标
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 导出运行指标
+     * <p>
+     * 包含各广播的接收次数、各 AudioManager 调用的次数与耗时、写入的合并与丢弃次数、
+     * 被覆盖的 postValue 次数以及音量从收到改变到分发的延迟。可以在任意线程调用
+     */
+    @NonNull
+    public VolumeMetricsSnapshot getMetrics() {
+        return VolumeMetrics.snapshot();
+    }
+
+    /**
+     * 清空运行指标
+     */
+    public void resetMetrics() {
+        VolumeMetrics.reset();
+    }
+
+    /**
+     * 是否记录运行指标，默认开启
+     * <p>
+     * 记录本身不分配对象、不加锁，关闭后只剩一次 volatile 读
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        VolumeMetrics.setEnabled(enabled);
+    }
+
+    /**
+     * 是否正在记录运行指标
+     */
+    public boolean isMetricsEnabled() {
+        return VolumeMetrics.isEnabled();
+    }
+
+    /**
+     * 是否输出系统 Trace 埋点，默认关闭，可以在运行时随时切换
+     *
+     * @see VolumeTrace
+     */
+    public void setTraceEnabled(boolean enabled) {
+        VolumeTrace.setEnabled(enabled);
+    }
+
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+    /// 按帧分发
+    /// ////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 是否按帧分发 LiveData，默认关闭
+     * <p>
+     * 开启后 {@link #stateOf(int)}、{@link #muteState(int)}、{@link #ringMode()} 的更新先记录最新值，
+     * 在下一次 vsync 统一分发，每帧每个音量流最多更新一次，长按音量键时界面刷新不会超过屏幕刷新率。
+     * 基本类型监听与 {@link OnVolumeChangeListener} 不受影响，仍然收到每一次改变
+     */
+    public void setFrameAlignedDispatch(boolean enabled) {
+        frameDispatcher.setEnabled(enabled);
+    }
+
+    /**
+     * 是否正在按帧分发 LiveData
      */
-    public void setMute(int streamType) {
-        setMute(streamType, !isMute(streamType));
+    public boolean isFrameAlignedDispatch() {
+        return frameDispatcher.isEnabled();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.ymk.volume;
+
+/**
+ * 异步接口结果回调
+ * <p>
+ * 回调在主线程执行
+ *
+ * @author YMK
+ * @since 2025/11/26
+ */
+public interface VolumeCallback<T> {
+
+    /**
+     * 返回结果
+     */
+    void onResult(T result);
+}
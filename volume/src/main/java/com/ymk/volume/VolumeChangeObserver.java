@@ -5,20 +5,31 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.media.AudioManager;
+import android.os.Handler;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * 音量变化监听
+ * <p>
+ * 通过系统广播感知改变，参考 {@link VolumeSource#broadcast()}
  *
  * @author YMK
  * @since 2025/11/20
  */
-final class VolumeChangeObserver extends BroadcastReceiver {
+final class VolumeChangeObserver extends BroadcastReceiver implements VolumeSource {
 
     /**
      * 是否初始化
      */
     private boolean isInit = false;
 
+    /**
+     * 状态改变回调
+     */
+    private volatile Callback callback;
+
     /**
      * 音量改变广播 Action
      * <p>
@@ -61,35 +72,14 @@ final class VolumeChangeObserver extends BroadcastReceiver {
      */
     private static final String EXTRA_STREAM_VOLUME_MUTED = "android.media.EXTRA_STREAM_VOLUME_MUTED";
 
-    /// ////////////////////////////////////////////////////////////////////////////////////////////
-    /// 单例
-    /// ////////////////////////////////////////////////////////////////////////////////////////////
-
-    private VolumeChangeObserver() {
-        // CODE HERE
-    }
-
-    /**
-     * 静态内部类实现单例
-     */
-    private static class SingleHolder {
-        private static final VolumeChangeObserver INSTANCE = new VolumeChangeObserver();
-    }
-
-    /**
-     * 单例模式
-     */
-    public static VolumeChangeObserver getInstance() {
-        return SingleHolder.INSTANCE;
-    }
-
     /// ////////////////////////////////////////////////////////////////////////////////////////////
     /// 开放接口
     /// ////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
     public void onReceive(Context context, Intent intent) {
-        if (null == intent) {
+        Callback cb = callback;
+        if (null == intent || null == cb) {
             return;
         }
 
@@ -100,7 +90,13 @@ final class VolumeChangeObserver extends BroadcastReceiver {
             int streamType = intent.getIntExtra(EXTRA_VOLUME_STREAM_TYPE, -1);
             int value = intent.getIntExtra(EXTRA_VOLUME_STREAM_VALUE, -1);
             int preValue = intent.getIntExtra(EXTRA_PREV_VOLUME_STREAM_VALUE, -1);
-            Volume.getInstance().onVolumeChanged(streamType, value, preValue);
+            VolumeMetrics.count(VolumeMetrics.BROADCAST_VOLUME);
+            boolean traced = VolumeTrace.beginReceive("Volume.onReceive VOLUME_CHANGED", streamType);
+            try {
+                cb.onVolumeChanged(streamType, value, preValue);
+            } finally {
+                VolumeTrace.endSection(traced);
+            }
             return;
         }
 
@@ -108,23 +104,60 @@ final class VolumeChangeObserver extends BroadcastReceiver {
         if (STREAM_MUTE_CHANGED_ACTION.equals(action)) {
             int streamType = intent.getIntExtra(EXTRA_VOLUME_STREAM_TYPE, -1);
             boolean isMute = intent.getBooleanExtra(EXTRA_STREAM_VOLUME_MUTED, false);
-            Volume.getInstance().onMuteChanged(streamType, isMute);
+            VolumeMetrics.count(VolumeMetrics.BROADCAST_MUTE);
+            boolean traced = VolumeTrace.beginReceive("Volume.onReceive MUTE_CHANGED", streamType);
+            try {
+                cb.onMuteChanged(streamType, isMute);
+            } finally {
+                VolumeTrace.endSection(traced);
+            }
             return;
         }
 
         // 响铃模式改变
         if (AudioManager.RINGER_MODE_CHANGED_ACTION.equals(action)) {
             int ringMode = intent.getIntExtra(AudioManager.EXTRA_RINGER_MODE, -1);
-            Volume.getInstance().onRingModeChanged(ringMode);
+            VolumeMetrics.count(VolumeMetrics.BROADCAST_RING_MODE);
+            boolean traced = VolumeTrace.beginReceive("Volume.onReceive RINGER_MODE_CHANGED", -1);
+            try {
+                cb.onRingModeChanged(ringMode);
+            } finally {
+                VolumeTrace.endSection(traced);
+            }
         }
     }
 
+    @Override
+    public void start(@NonNull Context context, @Nullable Handler scheduler, @NonNull Callback callback) {
+        this.callback = callback;
+        init(context, scheduler);
+    }
+
+    @Override
+    public void stop(@NonNull Context context) {
+        exit(context);
+        this.callback = null;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return BROADCAST;
+    }
+
     /**
      * 注册监听
+     * <p>
+     * 已经注册时直接返回
+     *
+     * @param scheduler 接收广播的线程，为 null 时在主线程接收
      */
-    public void init(Context context) {
-        if (isInit || null == context) {
-            throw new UnsupportedOperationException("init fail: reInit or context is null");
+    public void init(Context context, @Nullable Handler scheduler) {
+        if (null == context) {
+            throw new UnsupportedOperationException("init fail: context is null");
+        }
+        if (isInit) {
+            return;
         }
 
         IntentFilter filter = new IntentFilter();
@@ -135,7 +168,7 @@ final class VolumeChangeObserver extends BroadcastReceiver {
         filter.addAction(STREAM_MUTE_CHANGED_ACTION);
         // 响铃模式改变监听
         filter.addAction(AudioManager.RINGER_MODE_CHANGED_ACTION);
-        context.registerReceiver(this, filter);
+        context.registerReceiver(this, filter, null, scheduler);
 
         isInit = true;
     }
@@ -0,0 +1,44 @@
+package com.ymk.volume;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 音量库使用凭证
+ * <p>
+ * 通过 {@link Volume#acquire(android.content.Context)} 获取，不再使用时调用 {@link #release()}。
+ * 所有凭证释放后音量库自动逆初始化，多个组件（Activity、Service）可以各自持有凭证而互不影响
+ *
+ * @author YMK
+ * @since 2025/12/05
+ */
+public final class VolumeHandle implements AutoCloseable {
+
+    private final Volume volume;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    VolumeHandle(Volume volume) {
+        this.volume = volume;
+    }
+
+    /**
+     * 是否已经释放
+     */
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    /**
+     * 释放凭证，重复调用无效
+     */
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            volume.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
@@ -0,0 +1,130 @@
+package com.ymk.volume;
+
+import android.content.Context;
+import android.os.Handler;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 系统状态改变的来源
+ * <p>
+ * 默认通过系统广播感知改变，部分厂商系统会延迟甚至不发送音量广播，此时可以通过
+ * {@link Volume#setVolumeSource(VolumeSource)} 切换为 {@link #settings()} 或 {@link #polling()}。
+ * 不同设备上各来源的表现可以通过 {@link Volume#measureVolumeSources(int, VolumeSource...)} 测量，
+ * 将选出的 {@link #getName()} 保存下来，之后通过 {@link #of(String)} 恢复
+ * <p>
+ * 来源只在有观察者时启动
+ *
+ * @author YMK
+ * @since 2025/12/06
+ */
+public interface VolumeSource {
+
+    /**
+     * 系统广播
+     */
+    String BROADCAST = "broadcast";
+
+    /**
+     * Settings 数据库监听
+     */
+    String SETTINGS = "settings";
+
+    /**
+     * 轮询
+     */
+    String POLLING = "polling";
+
+    /**
+     * 状态改变回调
+     * <p>
+     * 可以重复回调相同的值，{@link Volume} 会过滤没有改变的状态
+     */
+    interface Callback {
+
+        /**
+         * 音量改变
+         *
+         * @param preValue 改变之前的音量，未知时为 {@link VolumeChangeEvent#UNKNOWN}
+         */
+        void onVolumeChanged(int streamType, int value, int preValue);
+
+        /**
+         * 静音状态改变
+         */
+        void onMuteChanged(int streamType, boolean isMute);
+
+        /**
+         * 响铃模式改变
+         */
+        void onRingModeChanged(int ringMode);
+    }
+
+    /**
+     * 开始感知改变
+     *
+     * @param scheduler 回调线程，为 null 时由来源自行决定（广播在主线程，查询类来源在自己的后台线程）
+     */
+    void start(@NonNull Context context, @Nullable Handler scheduler, @NonNull Callback callback);
+
+    /**
+     * 停止感知改变
+     */
+    void stop(@NonNull Context context);
+
+    /**
+     * 来源名称
+     */
+    @NonNull
+    String getName();
+
+    /**
+     * 系统广播，默认来源
+     * <p>
+     * 延迟最低，但依赖隐藏的 VOLUME_CHANGED_ACTION 广播
+     */
+    @NonNull
+    static VolumeSource broadcast() {
+        return new VolumeChangeObserver();
+    }
+
+    /**
+     * 监听 Settings 数据库
+     * <p>
+     * 系统会把音量、响铃模式持久化到 Settings 中，数据改变时重新查询所有状态
+     */
+    @NonNull
+    static VolumeSource settings() {
+        return new SettingsVolumeSource();
+    }
+
+    /**
+     * 自适应轮询
+     * <p>
+     * 没有改变时轮询间隔逐次翻倍，检测到改变后恢复为最短间隔
+     */
+    @NonNull
+    static VolumeSource polling() {
+        return new PollingVolumeSource();
+    }
+
+    /**
+     * 根据名称创建来源
+     *
+     * @return 名称未知时返回 null
+     */
+    @Nullable
+    static VolumeSource of(@Nullable String name) {
+        if (BROADCAST.equals(name)) {
+            return broadcast();
+        }
+        if (SETTINGS.equals(name)) {
+            return settings();
+        }
+        if (POLLING.equals(name)) {
+            return polling();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.ymk.volume;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 系统 Trace 埋点
+ * <p>
+ * 在 Perfetto / Systrace 中展示一次音量改变从收到广播、更新状态、投递到主线程直到界面刷新的完整过程。
+ * 每次收到音量改变都会为该音量流分配一个序号，之后各阶段的区段名称都带上音量流与序号，例如
+ * {@code Volume.onVolumeChanged s=3 #12}；异步事件 {@code Volume.latency s=3} 覆盖从收到到分发的时间。
+ * <p>
+ * 默认关闭，关闭时埋点只有一次 volatile 读，不拼接字符串。
+ * 异步事件需要 Android 10，更低的版本只记录同步区段
+ *
+ * @author YMK
+ * @since 2025/12/09
+ */
+public final class VolumeTrace {
+
+    private static final String LATENCY = "Volume.latency s=";
+
+    private static final String POST_VALUE = "Volume.postValue s=";
+
+    /**
+     * 一次分发最多结束的异步事件数量，避免开启 Trace 前的序号造成长时间循环
+     */
+    private static final int MAX_PENDING = 64;
+
+    /**
+     * Trace.beginAsyncSection / endAsyncSection 从 Android 10 开始提供，
+     * 异步事件跨越线程，低版本无法用同一线程的 beginSection 代替，直接跳过
+     */
+    private static final boolean ASYNC_SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+
+    private static volatile boolean enabled;
+
+    /**
+     * 各音量流最后一次收到改变的序号
+     */
+    private static final AtomicIntegerArray sequences = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 各音量流最后一次分发的序号
+     */
+    private static final AtomicIntegerArray dispatched = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    /**
+     * 各音量流正在投递的 postValue 对应的序号
+     */
+    private static final AtomicIntegerArray posted = new AtomicIntegerArray(StreamStateTable.CAPACITY);
+
+    private VolumeTrace() {
+        throw new UnsupportedOperationException("u can't initialize me~");
+    }
+
+    /**
+     * 开启或关闭埋点，可以在运行时随时切换
+     */
+    public static void setEnabled(boolean enabled) {
+        VolumeTrace.enabled = enabled;
+    }
+
+    /**
+     * 是否开启了埋点
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开始一个同步区段，名称为 {@code stage s=音量流 #序号}
+     * <p>
+     * 必须在同一线程调用 {@link #endSection(boolean)} 并传入返回值
+     *
+     * @param streamType 不属于某个音量流时传入 -1
+     * @return 是否真正开始了区段
+     */
+    public static boolean beginSection(@NonNull String stage, int streamType) {
+        if (!isTracing()) {
+            return false;
+        }
+        Trace.beginSection(name(stage, streamType, sequence(streamType)));
+        return true;
+    }
+
+    /**
+     * 结束 {@link #beginSection(String, int)} 开始的区段
+     */
+    public static void endSection(boolean began) {
+        if (began) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * 收到状态改变，为音量流分配新的序号并开始区段与异步事件
+     *
+     * @param streamType 响铃模式等不属于某个音量流的改变传入 -1
+     * @return 是否真正开始了区段
+     */
+    static boolean beginReceive(@NonNull String stage, int streamType) {
+        if (!isTracing()) {
+            return false;
+        }
+        int sequence = 0;
+        if (StreamStateTable.isValid(streamType)) {
+            sequence = sequences.incrementAndGet(streamType);
+            if (ASYNC_SUPPORTED) {
+                Trace.beginAsyncSection(LATENCY + streamType, sequence);
+            }
+        }
+        Trace.beginSection(name(stage, streamType, sequence));
+        return true;
+    }
+
+    /**
+     * 音量 LiveData 开始投递到主线程
+     */
+    static void onPost(int streamType) {
+        if (!ASYNC_SUPPORTED || !isTracing() || !StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        int sequence = sequences.get(streamType);
+        posted.set(streamType, sequence);
+        Trace.beginAsyncSection(POST_VALUE + streamType, sequence);
+    }
+
+    /**
+     * 音量已经分发到主线程观察者，结束该音量流所有未结束的异步事件
+     *
+     * @param wasPosted 是否是 postValue 投递的分发
+     */
+    static void onDispatch(int streamType, boolean wasPosted) {
+        if (!ASYNC_SUPPORTED || !isTracing() || !StreamStateTable.isValid(streamType)) {
+            return;
+        }
+        if (wasPosted) {
+            Trace.endAsyncSection(POST_VALUE + streamType, posted.get(streamType));
+        }
+        int sequence = sequences.get(streamType);
+        int from = Math.max(dispatched.getAndSet(streamType, sequence), sequence - MAX_PENDING);
+        for (int i = from + 1; i <= sequence; i++) {
+            Trace.endAsyncSection(LATENCY + streamType, i);
+        }
+    }
+
+    private static boolean isTracing() {
+        return enabled && (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || Trace.isEnabled());
+    }
+
+    private static int sequence(int streamType) {
+        return StreamStateTable.isValid(streamType) ? sequences.get(streamType) : 0;
+    }
+
+    private static String name(String stage, int streamType, int sequence) {
+        if (!StreamStateTable.isValid(streamType)) {
+            return stage;
+        }
+        return stage + " s=" + streamType + " #" + sequence;
+    }
+}
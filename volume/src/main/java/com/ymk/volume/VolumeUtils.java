@@ -1,10 +1,12 @@
 package com.ymk.volume;
 
 import android.Manifest;
+import android.media.AudioDeviceInfo;
 import android.media.AudioManager;
 import android.os.Build;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresPermission;
 
 /**
@@ -17,6 +19,23 @@ import androidx.annotation.RequiresPermission;
  */
 final class VolumeUtils {
 
+    /**
+     * 对外开放的音量流
+     * <p>
+     * 通过 {@link Volume#getStreamTypes()} 提供给界面，包含隐藏的 {@link StreamTypes#STREAM_BLUETOOTH_SCO}
+     */
+    static final int[] STREAM_TYPES = {
+            AudioManager.STREAM_VOICE_CALL,
+            AudioManager.STREAM_SYSTEM,
+            AudioManager.STREAM_RING,
+            AudioManager.STREAM_MUSIC,
+            AudioManager.STREAM_ALARM,
+            AudioManager.STREAM_NOTIFICATION,
+            StreamTypes.STREAM_BLUETOOTH_SCO,
+            AudioManager.STREAM_DTMF,
+            AudioManager.STREAM_ACCESSIBILITY,
+    };
+
     private VolumeUtils() {
         throw new UnsupportedOperationException("u can't initialize me~");
     }
@@ -25,7 +44,14 @@ final class VolumeUtils {
      * 根据 streamType 获取音量
      */
     public static int getVolume(@NonNull AudioManager manager, int streamType) {
-        return manager.getStreamVolume(streamType);
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.getStreamVolume", streamType);
+        try {
+            return manager.getStreamVolume(streamType);
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_GET_VOLUME, start);
+        }
     }
 
     /**
@@ -42,10 +68,25 @@ final class VolumeUtils {
      *               </ul>
      */
     public static void setVolume(@NonNull AudioManager manager, int streamType, int volume, int flags) {
+        trySetVolume(manager, streamType, volume, flags);
+    }
+
+    /**
+     * 设置音量到指定 streamType
+     *
+     * @return 是否设置成功，勿扰模式下修改响铃音量等情况会因为没有权限而失败
+     */
+    public static boolean trySetVolume(@NonNull AudioManager manager, int streamType, int volume, int flags) {
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.setStreamVolume", streamType);
         try {
             manager.setStreamVolume(streamType, volume, flags);
+            return true;
         } catch (SecurityException ignore) {
-            // CODE HERE
+            return false;
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_SET_VOLUME, start);
         }
     }
 
@@ -53,21 +94,47 @@ final class VolumeUtils {
      * 返回指定 streamType 的最大值
      */
     public static int getMaxVolume(@NonNull AudioManager manager, int streamType) {
-        return manager.getStreamMaxVolume(streamType);
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.getStreamMaxVolume", streamType);
+        try {
+            return manager.getStreamMaxVolume(streamType);
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_GET_MAX_VOLUME, start);
+        }
     }
 
     /**
      * 返回指定 streamType 的最小值
+     * <p>
+     * 隐藏的音量流不支持查询最小值，返回 0
      */
     public static int getMinVolume(@NonNull AudioManager manager, int streamType) {
-        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P ? manager.getStreamMinVolume(streamType) : 0;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.P || !StreamTypes.isPublic(streamType)) {
+            return 0;
+        }
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.getStreamMinVolume", streamType);
+        try {
+            return manager.getStreamMinVolume(streamType);
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_GET_MIN_VOLUME, start);
+        }
     }
 
     /**
      * 获取当前系统响铃模式
      */
     public static int getRingMode(@NonNull AudioManager manager) {
-        return manager.getRingerMode();
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.getRingerMode", -1);
+        try {
+            return manager.getRingerMode();
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_GET_RING_MODE, start);
+        }
     }
 
     /**
@@ -75,10 +142,27 @@ final class VolumeUtils {
      */
     @RequiresPermission(Manifest.permission.ACCESS_NOTIFICATION_POLICY)
     public static void setRingMode(@NonNull AudioManager manager, int ringMode) {
+        trySetRingMode(manager, ringMode);
+    }
+
+    /**
+     * 设置系统响铃模式
+     *
+     * @return 是否设置成功
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NOTIFICATION_POLICY)
+    public static boolean trySetRingMode(@NonNull AudioManager manager, int ringMode) {
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.setRingerMode", -1);
         try {
             manager.setRingerMode(ringMode);
+            return true;
         } catch (SecurityException e) {
             e.printStackTrace();
+            return false;
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_SET_RING_MODE, start);
         }
     }
 
@@ -86,44 +170,181 @@ final class VolumeUtils {
      * 判断指定 streamType 是否静音
      */
     public static boolean isMute(@NonNull AudioManager manager, int streamType) {
-        return manager.isStreamMute(streamType);
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.isStreamMute", streamType);
+        try {
+            return manager.isStreamMute(streamType);
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_IS_MUTE, start);
+        }
     }
 
     /**
      * 设置指定 streamType 静音状态
      */
     public static void setMute(@NonNull AudioManager manager, int streamType, boolean isMute, int flag) {
-        manager.adjustStreamVolume(
-                streamType,
-                isMute ? AudioManager.ADJUST_MUTE : AudioManager.ADJUST_UNMUTE,
-                flag);
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.adjustStreamVolume(mute)", streamType);
+        try {
+            manager.adjustStreamVolume(
+                    streamType,
+                    isMute ? AudioManager.ADJUST_MUTE : AudioManager.ADJUST_UNMUTE,
+                    flag);
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_SET_MUTE, start);
+        }
     }
 
     /**
-     * 获取 streamType 的名称
+     * 将指定 streamType 的音量调高或调低一档
      */
-    public static String getStreamTypeName(final int streamType) {
-        switch (streamType) {
-            case AudioManager.STREAM_MUSIC:
-                return "STREAM_MUSIC";
-            case AudioManager.STREAM_ALARM:
-                return "STREAM_ALARM";
-            case AudioManager.STREAM_ACCESSIBILITY:
-                return "STREAM_ACCESSIBILITY";
-            case AudioManager.STREAM_SYSTEM:
-                return "STREAM_SYSTEM";
-            case AudioManager.STREAM_DTMF:
-                return "STREAM_DTMF";
-            case AudioManager.STREAM_NOTIFICATION:
-                return "STREAM_NOTIFICATION";
-            case AudioManager.STREAM_RING:
-                return "STREAM_RING";
-            case AudioManager.STREAM_VOICE_CALL:
-                return "STREAM_VOICE_CALL";
-            case AudioManager.USE_DEFAULT_STREAM_TYPE:
-                return "USE_DEFAULT_STREAM_TYPE";
+    public static void adjustVolume(@NonNull AudioManager manager, int streamType, boolean isAdd, int flag) {
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.adjustStreamVolume", streamType);
+        try {
+            manager.adjustStreamVolume(
+                    streamType,
+                    isAdd ? AudioManager.ADJUST_RAISE : AudioManager.ADJUST_LOWER,
+                    flag);
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_ADJUST_VOLUME, start);
+        }
+    }
+
+    /**
+     * 设置指定 streamType 静音状态
+     *
+     * @return 是否设置成功
+     */
+    public static boolean trySetMute(@NonNull AudioManager manager, int streamType, boolean isMute, int flag) {
+        try {
+            setMute(manager, streamType, isMute, flag);
+            return true;
+        } catch (SecurityException ignore) {
+            return false;
+        }
+    }
+
+    /**
+     * 计算当前输出设备的标识
+     * <p>
+     * 输出设备列表不变时返回值不变
+     */
+    public static int getOutputDevicesKey(@NonNull AudioManager manager) {
+        AudioDeviceInfo[] devices = getOutputDevices(manager);
+        if (null == devices) {
+            return 0;
+        }
+        int key = 1;
+        for (AudioDeviceInfo device : devices) {
+            // 与顺序无关
+            key += 31 * device.getId() + device.getType();
+        }
+        return key;
+    }
+
+    /**
+     * 获取指定音量档位的分贝值
+     *
+     * @return 查询失败时返回 {@link Float#NEGATIVE_INFINITY}
+     */
+    public static float getVolumeDb(@NonNull AudioManager manager, int streamType, int index, int deviceType) {
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.getStreamVolumeDb", streamType);
+        try {
+            return manager.getStreamVolumeDb(streamType, index, deviceType);
+        } catch (IllegalArgumentException e) {
+            return Float.NEGATIVE_INFINITY;
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_GET_VOLUME_DB, start);
+        }
+    }
+
+    /**
+     * 获取当前生效的输出设备类型
+     * <p>
+     * 按系统的路由优先级：蓝牙、有线耳机、USB 耳机，都没有时为内置扬声器
+     */
+    public static int getActiveOutputDeviceType(@NonNull AudioManager manager) {
+        AudioDeviceInfo device = getActiveOutputDevice(manager);
+        return null == device ? AudioDeviceInfo.TYPE_BUILTIN_SPEAKER : device.getType();
+    }
+
+    /**
+     * 获取当前媒体输出设备，优先级与 {@link #getActiveOutputDeviceType(AudioManager)} 相同
+     *
+     * @return 没有可识别的输出设备时返回 null
+     */
+    @Nullable
+    public static AudioDeviceInfo getActiveOutputDevice(@NonNull AudioManager manager) {
+        AudioDeviceInfo[] devices = getOutputDevices(manager);
+        if (null == devices) {
+            return null;
+        }
+        AudioDeviceInfo result = null;
+        int priority = 0;
+        for (AudioDeviceInfo device : devices) {
+            int devicePriority = getOutputPriority(device.getType());
+            if (devicePriority > priority) {
+                priority = devicePriority;
+                result = device;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 输出设备的标识
+     * <p>
+     * 设备 id 在重新连接后会改变，使用类型与地址区分同一类型的不同设备（例如两副蓝牙耳机）
+     */
+    @NonNull
+    public static String getDeviceKey(@Nullable AudioDeviceInfo device) {
+        if (null == device) {
+            return String.valueOf(AudioDeviceInfo.TYPE_BUILTIN_SPEAKER);
+        }
+        return device.getType() + "/" + device.getAddress();
+    }
+
+    /**
+     * 查询所有输出设备
+     */
+    private static AudioDeviceInfo[] getOutputDevices(@NonNull AudioManager manager) {
+        long start = VolumeMetrics.start();
+        boolean traced = VolumeTrace.beginSection("AudioManager.getDevices", -1);
+        try {
+            return manager.getDevices(AudioManager.GET_DEVICES_OUTPUTS);
+        } finally {
+            VolumeTrace.endSection(traced);
+            VolumeMetrics.stop(VolumeMetrics.BINDER_GET_DEVICES, start);
+        }
+    }
+
+    private static int getOutputPriority(int deviceType) {
+        switch (deviceType) {
+            case AudioDeviceInfo.TYPE_BLUETOOTH_A2DP:
+            case AudioDeviceInfo.TYPE_BLE_HEADSET:
+            case AudioDeviceInfo.TYPE_HEARING_AID:
+                return 3;
+            case AudioDeviceInfo.TYPE_WIRED_HEADSET:
+            case AudioDeviceInfo.TYPE_WIRED_HEADPHONES:
+            case AudioDeviceInfo.TYPE_USB_HEADSET:
+                return 2;
+            case AudioDeviceInfo.TYPE_BUILTIN_SPEAKER:
+                return 1;
             default:
-                return String.valueOf(streamType);
+                return 0;
         }
     }
+
+    /**
+     * 获取 streamType 的名称
+     */
+    public static String getStreamTypeName(final int streamType) {
+        return StreamTypes.name(streamType);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.ymk.volume;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link PollingVolumeSource} 轮询间隔与停止测试
+ *
+ * @author YMK
+ * @since 2025/12/06
+ */
+public class PollingVolumeSourceTest {
+
+    @Test
+    public void intervalBacksOffUntilChangeDetected() {
+        long interval = PollingVolumeSource.MIN_INTERVAL_MS;
+        for (int i = 0; i < 10; i++) {
+            interval = PollingVolumeSource.nextInterval(interval, false);
+        }
+        assertEquals(PollingVolumeSource.MAX_INTERVAL_MS, interval);
+
+        interval = PollingVolumeSource.nextInterval(interval, true);
+        assertEquals(PollingVolumeSource.MIN_INTERVAL_MS, interval);
+        assertEquals(2 * PollingVolumeSource.MIN_INTERVAL_MS, PollingVolumeSource.nextInterval(interval, false));
+    }
+
+    @Test
+    public void stopWhilePollingEndsTheChain() {
+        final List<Runnable> posted = new ArrayList<>();
+        final int[] queries = {0};
+        final PollingVolumeSource.Poller[] poller = new PollingVolumeSource.Poller[1];
+        poller[0] = new PollingVolumeSource.Poller(() -> {
+            queries[0]++;
+            if (2 == queries[0]) {
+                // 第二次查询期间在其他线程停止
+                poller[0].cancel();
+            }
+            return false;
+        }, (task, delayMillis) -> posted.add(task));
+
+        poller[0].run();
+        assertEquals(1, posted.size());
+
+        posted.remove(0).run();
+        assertEquals(2, queries[0]);
+        assertEquals(0, posted.size());
+    }
+
+    @Test
+    public void taskPostedBeforeStopDoesNotQuery() {
+        final List<Runnable> posted = new ArrayList<>();
+        final int[] queries = {0};
+        PollingVolumeSource.Poller poller = new PollingVolumeSource.Poller(() -> {
+            queries[0]++;
+            return true;
+        }, (task, delayMillis) -> posted.add(task));
+
+        poller.run();
+        // 投递已经发生 移除任务之前停止
+        poller.cancel();
+        posted.remove(0).run();
+        assertEquals(1, queries[0]);
+        assertEquals(0, posted.size());
+    }
+}